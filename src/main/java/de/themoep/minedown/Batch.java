@@ -0,0 +1,127 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Runs a function over many items in parallel and collects the results in input order.
+ * <p>
+ * On a {@link ForkJoinPool} the items are split recursively so that idle workers can steal the other halves,
+ * on any other executor they are split into a fixed number of chunks up front. Every item's error is caught
+ * and reported in its result instead of failing the whole batch.
+ */
+final class Batch {
+
+    /**
+     * Batches with at most this many items are processed in the calling task without splitting them further
+     */
+    private static final int THRESHOLD = 16;
+
+    private Batch() {}
+
+    /**
+     * Run a function over many items
+     * @param items     The items to process
+     * @param function  The function to apply to each item, needs to be safe to call from different threads
+     * @param executor  The executor to run on
+     * @param <I>       The type of the items
+     * @param <O>       The type of the results
+     * @return          An unmodifiable list with the result of every item in input order
+     */
+    static <I, O> List<BatchResult<O>> run(Collection<? extends I> items, Function<? super I, ? extends O> function, Executor executor) {
+        Util.validate(items != null, "Items can't be null!");
+        Util.validate(function != null, "Function can't be null!");
+        Util.validate(executor != null, "Executor can't be null!");
+        Object[] input = items.toArray();
+        BatchResult<O>[] results = newResults(input.length);
+        if (input.length <= THRESHOLD) {
+            apply(input, results, function, 0, input.length);
+        } else if (executor instanceof ForkJoinPool) {
+            ((ForkJoinPool) executor).invoke(new Task<>(input, results, function, 0, input.length));
+        } else {
+            int chunks = Math.min(Runtime.getRuntime().availableProcessors() * 4, (input.length + THRESHOLD - 1) / THRESHOLD);
+            int chunkSize = (input.length + chunks - 1) / chunks;
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[chunks];
+            for (int i = 0; i < chunks; i++) {
+                int start = i * chunkSize;
+                int end = Math.min(start + chunkSize, input.length);
+                futures[i] = CompletableFuture.runAsync(() -> apply(input, results, function, start, end), executor);
+            }
+            CompletableFuture.allOf(futures).join();
+        }
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <O> BatchResult<O>[] newResults(int length) {
+        return (BatchResult<O>[]) new BatchResult<?>[length];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <I, O> void apply(Object[] input, BatchResult<O>[] results, Function<? super I, ? extends O> function, int start, int end) {
+        for (int i = start; i < end; i++) {
+            try {
+                results[i] = new BatchResult<>(i, function.apply((I) input[i]), null);
+            } catch (RuntimeException e) {
+                results[i] = new BatchResult<>(i, null, e);
+            }
+        }
+    }
+
+    private static final class Task<I, O> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] input;
+        private final BatchResult<O>[] results;
+        private final Function<? super I, ? extends O> function;
+        private final int start;
+        private final int end;
+
+        private Task(Object[] input, BatchResult<O>[] results, Function<? super I, ? extends O> function, int start, int end) {
+            this.input = input;
+            this.results = results;
+            this.function = function;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= THRESHOLD) {
+                apply(input, results, function, start, end);
+            } else {
+                int middle = (start + end) >>> 1;
+                invokeAll(new Task<>(input, results, function, start, middle), new Task<>(input, results, function, middle, end));
+            }
+        }
+    }
+}
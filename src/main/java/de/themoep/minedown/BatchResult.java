@@ -0,0 +1,78 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+/**
+ * The result of a single item of a batch operation like {@link MineDown#parseAll(java.util.Collection, MineDownSettings)}.
+ * Either contains the value or the error that occurred while processing the item.
+ * @param <T> The type of the value
+ */
+public final class BatchResult<T> {
+
+    private final int index;
+    private final T value;
+    private final Throwable error;
+
+    BatchResult(int index, T value, Throwable error) {
+        this.index = index;
+        this.value = value;
+        this.error = error;
+    }
+
+    /**
+     * Get the position of the item in the input of the batch
+     * @return The index of the item
+     */
+    public int index() {
+        return index;
+    }
+
+    /**
+     * Get the value that the item resulted in
+     * @return The value or <tt>null</tt> if processing the item failed
+     */
+    public T value() {
+        return value;
+    }
+
+    /**
+     * Get the error that occurred while processing the item
+     * @return The error or <tt>null</tt> if processing the item succeeded
+     */
+    public Throwable error() {
+        return error;
+    }
+
+    /**
+     * Get whether or not processing the item succeeded
+     * @return <tt>true</tt> if there was no error
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{index=" + index + (isSuccess() ? ", value=" + value : ", error=" + error) + "}";
+    }
+}
@@ -0,0 +1,253 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+
+import java.util.Arrays;
+
+/**
+ * Resolves colors directly from the characters of a message without creating any strings.
+ * <p>
+ * Legacy codes are looked up in a table indexed by their character, named colors in a table with a
+ * perfect hash that is computed when the class is loaded and hex colors are decoded digit by digit.
+ * Colors that were decoded from hex are cached so that repeated colors share one instance.
+ */
+final class ColorResolver {
+
+    private static final TextColor[] LEGACY_COLORS = new TextColor[128];
+    private static final char[] LEGACY_CODES = "0123456789abcdef".toCharArray();
+    private static final NamedTextColor[] LEGACY_PALETTE = {
+            NamedTextColor.BLACK, NamedTextColor.DARK_BLUE, NamedTextColor.DARK_GREEN, NamedTextColor.DARK_AQUA,
+            NamedTextColor.DARK_RED, NamedTextColor.DARK_PURPLE, NamedTextColor.GOLD, NamedTextColor.GRAY,
+            NamedTextColor.DARK_GRAY, NamedTextColor.BLUE, NamedTextColor.GREEN, NamedTextColor.AQUA,
+            NamedTextColor.RED, NamedTextColor.LIGHT_PURPLE, NamedTextColor.YELLOW, NamedTextColor.WHITE
+    };
+    private static final TextDecoration[] LEGACY_DECORATIONS = new TextDecoration[128];
+
+    private static final int NAMED_SIZE = 64;
+    private static final String[] NAMED_KEYS = new String[NAMED_SIZE];
+    private static final NamedTextColor[] NAMED_COLORS = new NamedTextColor[NAMED_SIZE];
+    private static final int NAMED_SEED;
+
+    /**
+     * Direct mapped cache of the colors created from hex values, racing writes only cost a new instance
+     */
+    private static final TextColor[] HEX_CACHE = new TextColor[1024];
+
+    static {
+        for (int i = 0; i < LEGACY_CODES.length; i++) {
+            LEGACY_COLORS[LEGACY_CODES[i]] = LEGACY_PALETTE[i];
+            LEGACY_COLORS[Character.toUpperCase(LEGACY_CODES[i])] = LEGACY_PALETTE[i];
+        }
+        String legacyDecorations = "klmno";
+        TextDecoration[] decorations = {
+                TextDecoration.OBFUSCATED, TextDecoration.BOLD, TextDecoration.STRIKETHROUGH,
+                TextDecoration.UNDERLINED, TextDecoration.ITALIC
+        };
+        for (int i = 0; i < legacyDecorations.length(); i++) {
+            LEGACY_DECORATIONS[legacyDecorations.charAt(i)] = decorations[i];
+            LEGACY_DECORATIONS[Character.toUpperCase(legacyDecorations.charAt(i))] = decorations[i];
+        }
+
+        // Search a seed with which all color names end up in different slots
+        int seed = 31;
+        while (!fillNamed(LEGACY_PALETTE, seed)) {
+            seed += 2;
+        }
+        NAMED_SEED = seed;
+    }
+
+    private ColorResolver() {}
+
+    private static boolean fillNamed(NamedTextColor[] colors, int seed) {
+        Arrays.fill(NAMED_KEYS, null);
+        for (NamedTextColor color : colors) {
+            String name = NamedTextColor.NAMES.key(color);
+            int slot = hash(name, 0, name.length(), seed);
+            if (NAMED_KEYS[slot] != null) {
+                return false;
+            }
+            NAMED_KEYS[slot] = name;
+            NAMED_COLORS[slot] = color;
+        }
+        return true;
+    }
+
+    /**
+     * Get the color of a legacy color code
+     * @param code  The character of the code in any case
+     * @return      The color or <tt>null</tt> if the code isn't a color
+     */
+    static TextColor legacyColor(char code) {
+        return code < 128 ? LEGACY_COLORS[code] : null;
+    }
+
+    /**
+     * Get the decoration of a legacy formatting code
+     * @param code  The character of the code in any case
+     * @return      The decoration or <tt>null</tt> if the code isn't a formatting code
+     */
+    static TextDecoration legacyDecoration(char code) {
+        return code < 128 ? LEGACY_DECORATIONS[code] : null;
+    }
+
+    /**
+     * Get the legacy code of the legacy color that is the nearest to a color
+     * @param color The color
+     * @return      The character of the legacy color code
+     */
+    static char nearestLegacyCode(TextColor color) {
+        for (int i = 0; i < LEGACY_PALETTE.length; i++) {
+            if (LEGACY_PALETTE[i] == color) {
+                return LEGACY_CODES[i];
+            }
+        }
+        int rgb = color.value();
+        return LEGACY_CODES[NearestLegacy.TABLE[(rgb >> 9 & 0x7C00) | (rgb >> 6 & 0x3E0) | (rgb >> 3 & 0x1F)]];
+    }
+
+    /**
+     * Resolve a color from its name or its hex value starting with a <tt>#</tt>
+     * @param sequence  The sequence containing the color
+     * @param start     The start of the color (inclusive)
+     * @param end       The end of the color (exclusive)
+     * @return          The color or <tt>null</tt> if it isn't a valid color
+     */
+    static TextColor color(CharSequence sequence, int start, int end) {
+        if (start >= end) {
+            return null;
+        }
+        if (sequence.charAt(start) == '#') {
+            return hex(sequence, start + 1, end);
+        }
+        return named(sequence, start, end);
+    }
+
+    /**
+     * Resolve a color by its name in any case
+     * @param sequence  The sequence containing the name
+     * @param start     The start of the name (inclusive)
+     * @param end       The end of the name (exclusive)
+     * @return          The color or <tt>null</tt> if there is no color with that name
+     */
+    static NamedTextColor named(CharSequence sequence, int start, int end) {
+        int slot = hash(sequence, start, end, NAMED_SEED);
+        String key = NAMED_KEYS[slot];
+        if (key == null || key.length() != end - start) {
+            return null;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != lowerCase(sequence.charAt(start + i))) {
+                return null;
+            }
+        }
+        return NAMED_COLORS[slot];
+    }
+
+    /**
+     * Decode a hex color with six digits or with three digits as a short form, e.g. <tt>f0f</tt> for <tt>ff00ff</tt>
+     * @param sequence  The sequence containing the hex digits
+     * @param start     The start of the digits (inclusive), after the <tt>#</tt>
+     * @param end       The end of the digits (exclusive)
+     * @return          The color or <tt>null</tt> if it isn't a valid hex color
+     */
+    static TextColor hex(CharSequence sequence, int start, int end) {
+        int length = end - start;
+        if (length != 6 && length != 3) {
+            return null;
+        }
+        int rgb = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(sequence.charAt(i), 16);
+            if (digit < 0) {
+                return null;
+            }
+            rgb = length == 3 ? rgb << 8 | digit << 4 | digit : rgb << 4 | digit;
+        }
+        return rgb(rgb);
+    }
+
+    /**
+     * Get the color of an rgb value. Named colors are returned as their constant,
+     * all other colors are cached so that a repeated value returns the same instance.
+     * @param rgb   The rgb value
+     * @return      The color
+     */
+    static TextColor rgb(int rgb) {
+        int slot = (rgb * 0x9E3779B1) >>> 22;
+        TextColor color = HEX_CACHE[slot];
+        if (color == null || color.value() != rgb) {
+            color = NamedTextColor.ofExact(rgb);
+            if (color == null) {
+                color = TextColor.of(rgb);
+            }
+            HEX_CACHE[slot] = color;
+        }
+        return color;
+    }
+
+    /**
+     * The index of the nearest legacy color for every color with 5 bits per channel, only computed when it is needed
+     */
+    private static final class NearestLegacy {
+        private static final byte[] TABLE = new byte[1 << 15];
+
+        static {
+            for (int i = 0; i < TABLE.length; i++) {
+                // Use the center of the range of colors that end up at this index
+                int r = (i >> 10) << 3 | 4;
+                int g = (i >> 5 & 0x1F) << 3 | 4;
+                int b = (i & 0x1F) << 3 | 4;
+                int nearest = 0;
+                int nearestDistance = Integer.MAX_VALUE;
+                for (int j = 0; j < LEGACY_PALETTE.length; j++) {
+                    int value = LEGACY_PALETTE[j].value();
+                    int dr = r - (value >> 16 & 0xFF);
+                    int dg = g - (value >> 8 & 0xFF);
+                    int db = b - (value & 0xFF);
+                    int distance = dr * dr + dg * dg + db * db;
+                    if (distance < nearestDistance) {
+                        nearest = j;
+                        nearestDistance = distance;
+                    }
+                }
+                TABLE[i] = (byte) nearest;
+            }
+        }
+    }
+
+    private static int hash(CharSequence sequence, int start, int end, int seed) {
+        int hash = end - start;
+        for (int i = start; i < end; i++) {
+            hash = hash * seed + lowerCase(sequence.charAt(i));
+        }
+        return (hash ^ (hash >>> 16)) & (NAMED_SIZE - 1);
+    }
+
+    private static char lowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+    }
+}
@@ -0,0 +1,239 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextDecoration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reduces the size of component trees without changing how they look.
+ * <p>
+ * The tree is flattened into a list of runs that each have their full inherited style, adjacent text
+ * runs with the same style are merged and empty ones are dropped. Style parts that all runs share are
+ * hoisted to a single parent component. Components that aren't {@link TextComponent}s are kept as they
+ * are with their inherited style applied.
+ * <p>
+ * Decorations that aren't set stay unset, so an optimized component still inherits them from
+ * whatever component it gets appended to later on.
+ */
+public final class ComponentOptimizer {
+
+    private static final TextDecoration[] DECORATIONS = TextDecoration.values();
+
+    private ComponentOptimizer() {}
+
+    /**
+     * Optimize a component tree
+     * @param component The component to optimize
+     * @return The optimized component which looks the same as the original one
+     */
+    public static Component optimize(Component component) {
+        List<Run> runs = new ArrayList<>();
+        flatten(component, Style.empty(), runs);
+        if (runs.isEmpty()) {
+            return Component.empty();
+        }
+        if (runs.size() == 1) {
+            return runs.get(0).component();
+        }
+
+        List<Style> styles = new ArrayList<>(runs.size());
+        for (Run run : runs) {
+            styles.add(run.style);
+        }
+        Style shared = sharedStyle(styles);
+        StylePool pool = StylePool.global();
+        if (pool != null) {
+            shared = pool.internStyle(shared);
+        }
+        TextComponent.Builder builder = TextComponent.builder().style(shared);
+        for (int i = 0; i < runs.size(); i++) {
+            Run run = runs.get(i);
+            run.style = without(run.style, shared, pool);
+            if (i == 0 && run.text != null && run.style.isEmpty()) {
+                // The first run can be the content of the parent as it has the same style
+                builder.content(run.text.toString());
+            } else {
+                builder.append(run.component());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Count the components in a tree, including the ones in show_text hovers
+     * @param component The component to count
+     * @return The amount of components
+     */
+    public static int countNodes(Component component) {
+        int count = 1;
+        if (component.style().hoverEvent() != null && component.style().hoverEvent().value() instanceof Component) {
+            count += countNodes((Component) component.style().hoverEvent().value());
+        }
+        for (Component child : component.children()) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+
+    private static void flatten(Component component, Style parentStyle, List<Run> runs) {
+        Style style = parentStyle.merge(component.style());
+        if (!(component instanceof TextComponent)) {
+            runs.add(new Run(component, style));
+            return;
+        }
+        String content = ((TextComponent) component).content();
+        if (!content.isEmpty()) {
+            Run last = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+            if (last != null && last.text != null && last.style.equals(style)) {
+                last.text.append(content);
+            } else {
+                runs.add(new Run(content, style));
+            }
+        }
+        for (Component child : component.children()) {
+            flatten(child, style, runs);
+        }
+    }
+
+    /**
+     * Get the style parts that all styles have in common
+     * @param styles    The styles, at least one
+     * @return          The shared style
+     */
+    static Style sharedStyle(List<Style> styles) {
+        Style first = styles.get(0);
+        boolean font = first.font() != null;
+        boolean color = first.color() != null;
+        boolean click = first.clickEvent() != null;
+        boolean hover = first.hoverEvent() != null;
+        boolean insertion = first.insertion() != null;
+        boolean[] decorations = new boolean[DECORATIONS.length];
+        for (int d = 0; d < DECORATIONS.length; d++) {
+            decorations[d] = first.decoration(DECORATIONS[d]) != TextDecoration.State.NOT_SET;
+        }
+        for (int i = 1; i < styles.size(); i++) {
+            Style style = styles.get(i);
+            font &= Objects.equals(first.font(), style.font());
+            color &= Objects.equals(first.color(), style.color());
+            click &= Objects.equals(first.clickEvent(), style.clickEvent());
+            hover &= Objects.equals(first.hoverEvent(), style.hoverEvent());
+            insertion &= Objects.equals(first.insertion(), style.insertion());
+            for (int d = 0; d < DECORATIONS.length; d++) {
+                decorations[d] &= first.decoration(DECORATIONS[d]) == style.decoration(DECORATIONS[d]);
+            }
+        }
+
+        Style.Builder shared = Style.builder();
+        if (font) {
+            shared.font(first.font());
+        }
+        if (color) {
+            shared.color(first.color());
+        }
+        if (click) {
+            shared.clickEvent(first.clickEvent());
+        }
+        if (hover) {
+            shared.hoverEvent(first.hoverEvent());
+        }
+        if (insertion) {
+            shared.insertion(first.insertion());
+        }
+        for (int d = 0; d < DECORATIONS.length; d++) {
+            if (decorations[d]) {
+                shared.decoration(DECORATIONS[d], first.decoration(DECORATIONS[d]));
+            }
+        }
+        return shared.build();
+    }
+
+    /**
+     * Remove the style parts that are inherited from the parent
+     * @param style     The full style
+     * @param parent    The style of the parent
+     * @param pool      The pool to intern the new style in or <tt>null</tt>
+     * @return          The style without the inherited parts
+     */
+    static Style without(Style style, Style parent, StylePool pool) {
+        if (parent.isEmpty()) {
+            return pool != null ? pool.internStyle(style) : style;
+        }
+        Style.Builder builder = Style.builder();
+        if (parent.font() == null) {
+            builder.font(style.font());
+        }
+        if (parent.color() == null) {
+            builder.color(style.color());
+        }
+        if (parent.clickEvent() == null) {
+            builder.clickEvent(style.clickEvent());
+        }
+        if (parent.hoverEvent() == null) {
+            builder.hoverEvent(style.hoverEvent());
+        }
+        if (parent.insertion() == null) {
+            builder.insertion(style.insertion());
+        }
+        for (TextDecoration decoration : DECORATIONS) {
+            if (parent.decoration(decoration) == TextDecoration.State.NOT_SET) {
+                builder.decoration(decoration, style.decoration(decoration));
+            }
+        }
+        return pool != null ? pool.internStyle(builder.build()) : builder.build();
+    }
+
+    /**
+     * A part of the flattened tree, either text or a component that isn't a text component
+     */
+    private static final class Run {
+        private final StringBuilder text;
+        private final Component component;
+        private Style style;
+
+        private Run(String text, Style style) {
+            this.text = new StringBuilder(text);
+            this.component = null;
+            this.style = style;
+        }
+
+        private Run(Component component, Style style) {
+            this.text = null;
+            this.component = component;
+            this.style = style;
+        }
+
+        private Component component() {
+            if (text != null) {
+                return Component.text(text.toString(), style);
+            }
+            return component.style(style);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.TextDecoration;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Precomputed case-insensitive lookup tables of the keywords in event definitions.
+ * <p>
+ * Lookups work directly on a region of the definitions and don't create any objects,
+ * unknown words are simply not found instead of causing an exception.
+ */
+final class DefinitionKeywords {
+
+    /**
+     * The keywords in front of the <tt>=</tt> of a definition
+     */
+    private static final Table<Keyword> KEYWORDS = new Table<>(32);
+
+    /**
+     * The names of the formats and their legacy aliases, used in format definitions and on their own
+     */
+    private static final Table<TextDecoration> DECORATIONS = new Table<>(16);
+
+    /**
+     * The text of the hover that events with only a click action get
+     */
+    private static final Map<ClickEvent.Action, String> CLICK_LABELS = new EnumMap<>(ClickEvent.Action.class);
+
+    static {
+        KEYWORDS.put("font", new Keyword(Type.FONT, null, null));
+        KEYWORDS.put("color", new Keyword(Type.COLOR, null, null));
+        KEYWORDS.put("format", new Keyword(Type.FORMAT, null, null));
+        KEYWORDS.put("hover", new Keyword(Type.EVENT, null, HoverEvent.Action.SHOW_TEXT));
+        for (ClickEvent.Action action : ClickEvent.Action.values()) {
+            String name = action.name().toLowerCase(Locale.ROOT);
+            KEYWORDS.put(name, new Keyword(Type.EVENT, action, null));
+            CLICK_LABELS.put(action, name.replace('_', ' '));
+        }
+        KEYWORDS.put("show_text", new Keyword(Type.EVENT, null, HoverEvent.Action.SHOW_TEXT));
+        KEYWORDS.put("show_item", new Keyword(Type.EVENT, null, HoverEvent.Action.SHOW_ITEM));
+        KEYWORDS.put("show_entity", new Keyword(Type.EVENT, null, HoverEvent.Action.SHOW_ENTITY));
+        for (TextDecoration decoration : TextDecoration.values()) {
+            DECORATIONS.put(decoration.name().toLowerCase(Locale.ROOT), decoration);
+        }
+        // The names of the legacy chat colors that are used in the documentation
+        DECORATIONS.put("underline", TextDecoration.UNDERLINED);
+        DECORATIONS.put("magic", TextDecoration.OBFUSCATED);
+    }
+
+    private DefinitionKeywords() {}
+
+    /**
+     * Look up the keyword of a definition
+     * @param definitions   The definitions
+     * @param start         The start of the keyword (inclusive)
+     * @param end           The end of the keyword (exclusive)
+     * @return              The keyword or <tt>null</tt> if it isn't a known keyword
+     */
+    static Keyword keyword(CharSequence definitions, int start, int end) {
+        return KEYWORDS.get(definitions, start, end);
+    }
+
+    /**
+     * Look up a format by its name
+     * @param definitions   The definitions
+     * @param start         The start of the name (inclusive)
+     * @param end           The end of the name (exclusive)
+     * @return              The decoration or <tt>null</tt> if it isn't a known format
+     */
+    static TextDecoration decoration(CharSequence definitions, int start, int end) {
+        return DECORATIONS.get(definitions, start, end);
+    }
+
+    /**
+     * Get the text that describes a click action, e.g. <tt>run command</tt>
+     * @param action    The click action
+     * @return          The description of the action
+     */
+    static String label(ClickEvent.Action action) {
+        return CLICK_LABELS.get(action);
+    }
+
+    enum Type {
+        FONT,
+        COLOR,
+        FORMAT,
+        EVENT
+    }
+
+    static final class Keyword {
+        private final Type type;
+        private final ClickEvent.Action clickAction;
+        private final HoverEvent.Action<?> hoverAction;
+
+        private Keyword(Type type, ClickEvent.Action clickAction, HoverEvent.Action<?> hoverAction) {
+            this.type = type;
+            this.clickAction = clickAction;
+            this.hoverAction = hoverAction;
+        }
+
+        Type type() {
+            return type;
+        }
+
+        ClickEvent.Action clickAction() {
+            return clickAction;
+        }
+
+        HoverEvent.Action<?> hoverAction() {
+            return hoverAction;
+        }
+    }
+
+    /**
+     * A fixed size open addressing hash table with lower case ascii keys
+     * that can be queried with a region of a char sequence in any case
+     */
+    private static final class Table<V> {
+        private final String[] keys;
+        private final Object[] values;
+
+        private Table(int size) {
+            keys = new String[size];
+            values = new Object[size];
+        }
+
+        private void put(String key, V value) {
+            int slot = hash(key, 0, key.length()) & (keys.length - 1);
+            while (keys[slot] != null) {
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V get(CharSequence sequence, int start, int end) {
+            int slot = hash(sequence, start, end) & (keys.length - 1);
+            String key;
+            while ((key = keys[slot]) != null) {
+                if (matches(key, sequence, start, end)) {
+                    return (V) values[slot];
+                }
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            return null;
+        }
+
+        private static int hash(CharSequence sequence, int start, int end) {
+            int hash = end - start;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + lowerCase(sequence.charAt(i));
+            }
+            return hash ^ (hash >>> 16);
+        }
+
+        private static boolean matches(String key, CharSequence sequence, int start, int end) {
+            if (key.length() != end - start) {
+                return false;
+            }
+            for (int i = 0; i < key.length(); i++) {
+                if (key.charAt(i) != lowerCase(sequence.charAt(start + i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static char lowerCase(char c) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+        }
+    }
+}
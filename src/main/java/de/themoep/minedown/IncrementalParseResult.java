@@ -0,0 +1,222 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of parsing a message that can be updated with edits without parsing the whole message again,
+ * e.g. for live previews of a message while it is typed.
+ * <p>
+ * The message is split into segments at spaces and line breaks that are not inside of an event or
+ * simple formatting. When the message gets edited only the segments from the one containing the edit
+ * up to the first segment after it that starts with the same style as before are parsed again,
+ * the components of all other segments are reused.
+ * <p>
+ * Results are immutable, every edit returns a new result.
+ */
+public final class IncrementalParseResult {
+
+    private final MineDownSettings settings;
+    private final String message;
+    private final List<Segment> segments;
+    private final Component component;
+    private final int reusedSegments;
+
+    private IncrementalParseResult(MineDownSettings settings, String message, List<Segment> segments, int reusedSegments) {
+        this.settings = settings;
+        this.message = message;
+        this.segments = segments;
+        this.reusedSegments = reusedSegments;
+        if (segments.isEmpty()) {
+            this.component = Component.empty();
+        } else if (segments.size() == 1) {
+            this.component = segments.get(0).component;
+        } else {
+            // The segments are already optimized on their own, reused ones don't have to be optimized again
+            TextComponent.Builder builder = TextComponent.builder();
+            for (Segment segment : segments) {
+                builder.append(segment.component);
+            }
+            this.component = builder.build();
+        }
+    }
+
+    /**
+     * Parse a message so that it can be edited afterwards
+     * @param settings  The settings to parse with
+     * @param message   The message to parse
+     * @return          The parse result
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    public static IncrementalParseResult parse(MineDownSettings settings, String message) throws IllegalArgumentException {
+        List<Segment> segments = new ArrayList<>();
+        parseSegments(message, 0, new ParseContext(settings), segments, Collections.emptyList(), 0, 0, 0, 0);
+        return new IncrementalParseResult(settings, message, segments, 0);
+    }
+
+    /**
+     * Edit the message and only parse the parts of it that are affected by the edit
+     * @param offset        The index in the message at which the edit starts
+     * @param removedLength The amount of characters that were removed at the offset
+     * @param inserted      The text that was inserted at the offset
+     * @return              The result for the edited message
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     * @throws IndexOutOfBoundsException Thrown when the removed region is not inside of the message
+     */
+    public IncrementalParseResult edit(int offset, int removedLength, String inserted) throws IllegalArgumentException {
+        if (offset < 0 || removedLength < 0 || offset + removedLength > message.length()) {
+            throw new IndexOutOfBoundsException("Region " + offset + "-" + (offset + removedLength)
+                    + " is not inside of the message with length " + message.length());
+        }
+        String edited = message.substring(0, offset) + inserted + message.substring(offset + removedLength);
+
+        // Segments that end with a separator before the edit stay the same
+        List<Segment> editedSegments = new ArrayList<>();
+        int start = 0;
+        int index = 0;
+        while (index < segments.size() && segments.get(index).terminated
+                && start + segments.get(index).length <= offset) {
+            editedSegments.add(segments.get(index));
+            start += segments.get(index).length;
+            index++;
+        }
+
+        ParseContext context = index > 0 ? segments.get(index - 1).end : new ParseContext(settings);
+        int reused = index + parseSegments(edited, start, context, editedSegments,
+                segments, index, start, inserted.length() - removedLength, offset + removedLength);
+        return new IncrementalParseResult(settings, edited, editedSegments, reused);
+    }
+
+    /**
+     * Parse the segments of a message from a certain index on.
+     * Stops parsing once a segment would start at the same place and with the same style as a previous segment
+     * after the edited region and reuses all previous segments from there.
+     * @param message           The message
+     * @param start             The index to start at, has to be the start of a segment
+     * @param context           The style at the start
+     * @param segments          The list to add the segments to
+     * @param previous          The previous segments
+     * @param previousIndex     The index of the previous segment that started at the start
+     * @param previousStart     The start of that previous segment in the previous message
+     * @param delta             The difference in length between the edited and the previous message
+     * @param reusableFrom      The index in the previous message after the edit, segments after it can be reused
+     * @return                  The amount of reused previous segments
+     */
+    private static int parseSegments(String message, int start, ParseContext context, List<Segment> segments,
+                                     List<Segment> previous, int previousIndex, int previousStart, int delta, int reusableFrom) {
+        SegmentScanner scanner = new SegmentScanner(context.settings(), message, true);
+        scanner.reset(start);
+        while (start < message.length()) {
+            // Segments before an edit are kept, so they have to stay valid whatever follows them
+            int end = scanner.next(message.length(), false);
+            boolean terminated = end != -1;
+            if (!terminated) {
+                end = message.length();
+            }
+            Segment segment = new Segment(message, start, end, terminated, context);
+            segments.add(segment);
+            context = segment.end;
+            start = end;
+            if (!terminated) {
+                break;
+            }
+
+            while (previousIndex < previous.size() && previousStart + delta < start) {
+                previousStart += previous.get(previousIndex).length;
+                previousIndex++;
+            }
+            if (previousIndex < previous.size() && previousStart + delta == start && previousStart >= reusableFrom
+                    && previous.get(previousIndex).start.hasSameStyle(context)) {
+                segments.addAll(previous.subList(previousIndex, previous.size()));
+                return previous.size() - previousIndex;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Get the settings the message was parsed with
+     * @return The settings
+     */
+    public MineDownSettings settings() {
+        return settings;
+    }
+
+    /**
+     * Get the parsed message
+     * @return The message
+     */
+    public String message() {
+        return message;
+    }
+
+    /**
+     * Get the parsed component
+     * @return The component with the components of all segments as children
+     */
+    public Component component() {
+        return component;
+    }
+
+    /**
+     * Get the amount of segments the message was split into
+     * @return The amount of segments
+     */
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Get how many segments of the previous result were reused instead of being parsed again
+     * @return The amount of reused segments, <tt>0</tt> if this result wasn't created by an edit
+     */
+    public int reusedSegments() {
+        return reusedSegments;
+    }
+
+    /**
+     * A part of the message that was parsed on its own
+     */
+    private static final class Segment {
+        private final int length;
+        private final boolean terminated;
+        private final ParseContext start;
+        private final ParseContext end;
+        private final Component component;
+
+        private Segment(String message, int start, int end, boolean terminated, ParseContext context) {
+            this.length = end - start;
+            this.terminated = terminated;
+            this.start = context;
+            ParseContext parsing = context.continuation();
+            this.component = context.settings().optimize(parsing.builder(TextComponent.builder()).parse(message, start, end).build());
+            this.end = parsing.continuation();
+        }
+    }
+}
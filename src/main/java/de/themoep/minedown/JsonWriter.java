@@ -0,0 +1,311 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes parsed text directly as Minecraft's json chat format without creating components for it.
+ * <p>
+ * The text is written as a list of siblings below an empty root so that every run only contains its own style,
+ * nothing has to be reset from a parent. Adjacent text with the same style gets merged and a message with
+ * only a single run is written as that run alone. Style parts that aren't set are left out.
+ */
+final class JsonWriter implements TextWriter {
+
+    private static final TextDecoration[] DECORATIONS = TextDecoration.values();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Appendable out;
+
+    /**
+     * The text of the last run, only written once the next run has a different style
+     */
+    private final StringBuilder pending = new StringBuilder();
+    private Style pendingStyle = null;
+
+    /**
+     * The amount of runs that were written to the output
+     */
+    private int written = 0;
+
+    JsonWriter(Appendable out) {
+        this.out = out;
+    }
+
+    /**
+     * Add text with a certain style
+     * @param text  The text
+     * @param style The style of the text
+     * @throws UncheckedIOException Thrown when the output throws an exception
+     */
+    @Override
+    public void text(CharSequence text, Style style) throws UncheckedIOException {
+        if (text.length() == 0) {
+            return;
+        }
+        if (pending.length() > 0 && !style.equals(pendingStyle)) {
+            try {
+                out.append(written == 0 ? "{\"text\":\"\",\"extra\":[" : ",");
+                writeText(out, pending, pendingStyle);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            written++;
+            pending.setLength(0);
+        }
+        pending.append(text);
+        pendingStyle = style;
+    }
+
+    /**
+     * Write the rest of the text and close the json
+     * @throws UncheckedIOException Thrown when the output throws an exception
+     */
+    void finish() throws UncheckedIOException {
+        try {
+            if (written == 0) {
+                if (pending.length() > 0) {
+                    writeText(out, pending, pendingStyle);
+                } else {
+                    out.append("{\"text\":\"\"}");
+                }
+            } else {
+                out.append(',');
+                writeText(out, pending, pendingStyle);
+                out.append("]}");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        pending.setLength(0);
+        pendingStyle = null;
+        written = 0;
+    }
+
+    /**
+     * Write a component and all its children as json
+     * @param out       The output to write to
+     * @param component The component
+     * @throws IOException Thrown when the output throws an exception
+     * @throws UnsupportedOperationException Thrown when the component is not a {@link TextComponent}
+     */
+    static void writeComponent(Appendable out, Component component) throws IOException {
+        if (!(component instanceof TextComponent)) {
+            throw new UnsupportedOperationException("Cannot write " + component.getClass().getTypeName() + " as json! Only TextComponents are supported right now.");
+        }
+        out.append("{\"text\":");
+        writeString(out, ((TextComponent) component).content());
+        writeStyle(out, component.style());
+        if (!component.children().isEmpty()) {
+            out.append(",\"extra\":[");
+            for (int i = 0; i < component.children().size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                writeComponent(out, component.children().get(i));
+            }
+            out.append(']');
+        }
+        out.append('}');
+    }
+
+    private static void writeText(Appendable out, CharSequence text, Style style) throws IOException {
+        out.append("{\"text\":");
+        writeString(out, text);
+        writeStyle(out, style);
+        out.append('}');
+    }
+
+    private static void writeStyle(Appendable out, Style style) throws IOException {
+        if (style.isEmpty()) {
+            return;
+        }
+        TextColor color = style.color();
+        if (color != null) {
+            out.append(",\"color\":\"").append(color instanceof NamedTextColor
+                    ? NamedTextColor.NAMES.key((NamedTextColor) color) : color.asHexString()).append('"');
+        }
+        for (TextDecoration decoration : DECORATIONS) {
+            TextDecoration.State state = style.decoration(decoration);
+            if (state != TextDecoration.State.NOT_SET) {
+                out.append(",\"").append(TextDecoration.NAMES.key(decoration)).append("\":")
+                        .append(state == TextDecoration.State.TRUE ? "true" : "false");
+            }
+        }
+        if (style.font() != null) {
+            out.append(",\"font\":");
+            writeString(out, style.font().asString());
+        }
+        if (style.insertion() != null) {
+            out.append(",\"insertion\":");
+            writeString(out, style.insertion());
+        }
+        ClickEvent clickEvent = style.clickEvent();
+        if (clickEvent != null) {
+            out.append(",\"clickEvent\":{\"action\":\"").append(ClickEvent.Action.NAMES.key(clickEvent.action())).append("\",\"value\":");
+            writeString(out, clickEvent.value());
+            out.append('}');
+        }
+        HoverEvent<?> hoverEvent = style.hoverEvent();
+        if (hoverEvent != null) {
+            out.append(",\"hoverEvent\":{\"action\":\"").append(HoverEvent.Action.NAMES.key(hoverEvent.action())).append("\",\"contents\":");
+            writeHoverContents(out, hoverEvent.value());
+            out.append('}');
+        }
+    }
+
+    private static void writeHoverContents(Appendable out, Object value) throws IOException {
+        if (value instanceof HoverEvent.ShowItem) {
+            HoverEvent.ShowItem item = (HoverEvent.ShowItem) value;
+            out.append("{\"id\":");
+            writeString(out, item.item().asString());
+            out.append(",\"count\":").append(Integer.toString(item.count()));
+            if (item.nbt() != null) {
+                out.append(",\"tag\":");
+                writeString(out, item.nbt().string());
+            }
+            out.append('}');
+        } else if (value instanceof HoverEvent.ShowEntity) {
+            HoverEvent.ShowEntity entity = (HoverEvent.ShowEntity) value;
+            out.append("{\"type\":");
+            writeString(out, entity.type().asString());
+            out.append(",\"id\":\"").append(entity.id().toString()).append('"');
+            if (entity.name() != null) {
+                out.append(",\"name\":");
+                writeComponent(out, entity.name());
+            }
+            out.append('}');
+        } else {
+            writeComponent(out, (Component) value);
+        }
+    }
+
+    /**
+     * Write a json string with all characters escaped that need to be escaped
+     * @param out   The output to write to
+     * @param value The string value
+     * @throws IOException Thrown when the output throws an exception
+     */
+    private static void writeString(Appendable out, CharSequence value) throws IOException {
+        out.append('"');
+        int unescaped = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.append(value, unescaped, i);
+            unescaped = i + 1;
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            }
+        }
+        out.append(value, unescaped, value.length());
+        out.append('"');
+    }
+
+    /**
+     * An {@link Appendable} that encodes the characters as UTF-8 into a byte buffer
+     */
+    static final class ByteBufferAppendable implements Appendable {
+        private final ByteBuffer buffer;
+        private char highSurrogate = 0;
+
+        ByteBufferAppendable(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            for (int i = start; i < end; i++) {
+                append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            if (highSurrogate != 0) {
+                char high = highSurrogate;
+                highSurrogate = 0;
+                if (Character.isLowSurrogate(c)) {
+                    int codePoint = Character.toCodePoint(high, c);
+                    buffer.put((byte) (0xF0 | codePoint >> 18));
+                    buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                    buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                    buffer.put((byte) (0x80 | codePoint & 0x3F));
+                    return this;
+                }
+                buffer.put((byte) '?');
+            }
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c)) {
+                highSurrogate = c;
+            } else if (Character.isLowSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+            return this;
+        }
+    }
+}
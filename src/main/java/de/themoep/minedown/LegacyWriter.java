@@ -0,0 +1,92 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+
+/**
+ * Writes parsed text directly as a legacy string with <tt>&sect;</tt> color and formatting codes.
+ * <p>
+ * Codes are only written when the style changes. As a color code resets the formatting, removing a
+ * format or changing the color writes the color code (or a reset code) followed by all formats again.
+ * Hex colors are written as the nearest of the 16 legacy colors, fonts and events are left out.
+ */
+final class LegacyWriter implements TextWriter {
+
+    private static final TextDecoration[] DECORATIONS = TextDecoration.values();
+    private static final char[] DECORATION_CODES = new char[DECORATIONS.length];
+
+    static {
+        for (char code = 'k'; code <= 'o'; code++) {
+            DECORATION_CODES[ColorResolver.legacyDecoration(code).ordinal()] = code;
+        }
+    }
+
+    private final StringBuilder out;
+    private final char colorChar;
+
+    /**
+     * The legacy color code and the formats that are currently active in the output
+     */
+    private char color = 0;
+    private final boolean[] formats = new boolean[DECORATIONS.length];
+
+    LegacyWriter(StringBuilder out, char colorChar) {
+        this.out = out;
+        this.colorChar = colorChar;
+    }
+
+    @Override
+    public void text(CharSequence text, Style style) {
+        if (text.length() == 0) {
+            return;
+        }
+        TextColor textColor = style.color();
+        char color = textColor != null ? ColorResolver.nearestLegacyCode(textColor) : 0;
+        boolean reset = color != this.color;
+        for (int i = 0; i < DECORATIONS.length && !reset; i++) {
+            reset = formats[i] && !style.hasDecoration(DECORATIONS[i]);
+        }
+        if (reset) {
+            out.append(colorChar).append(color != 0 ? color : 'r');
+            this.color = color;
+            for (int i = 0; i < formats.length; i++) {
+                formats[i] = false;
+            }
+        }
+        for (int i = 0; i < DECORATIONS.length; i++) {
+            if (!formats[i] && style.hasDecoration(DECORATIONS[i])) {
+                out.append(colorChar).append(DECORATION_CODES[i]);
+                formats[i] = true;
+            }
+        }
+        out.append(text);
+    }
+
+    @Override
+    public boolean events() {
+        return false;
+    }
+}
@@ -0,0 +1,184 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Lookup tables of a message that are computed in one linear pass so that the
+ * {@link MineDownTokenizer} never has to search the rest of the message again.
+ * Only the region of the message that gets parsed is indexed, all indices are indices in the whole message.
+ */
+final class MessageIndex {
+
+    /**
+     * The characters used for simple formatting
+     */
+    private static final String FORMAT_CHARS = "*#_~?";
+
+    /**
+     * All characters that are escaped by an uneven number of backslashes in front of them
+     */
+    private final BitSet escaped;
+
+    /**
+     * The index of the next unescaped <tt>](</tt> at or after an index
+     */
+    private final int[] nextEventClose;
+
+    /**
+     * The index of the next unescaped <tt>)</tt> at or after an index
+     */
+    private final int[] nextDefinitionClose;
+
+    /**
+     * The index of the unescaped <tt>]</tt> that closes the unescaped <tt>[</tt> at an index
+     */
+    private final int[] matchingBracket;
+
+    /**
+     * The index of the next doubled formatting character (e.g. <tt>**</tt>) that closes the
+     * same doubled formatting character at an index
+     */
+    private final int[] closingFormat;
+
+    /**
+     * The index of the first char of the region in the message, all tables are relative to it
+     */
+    private final int offset;
+
+    MessageIndex(CharSequence message, int start, int end) {
+        offset = start;
+        int length = end - start;
+        escaped = new BitSet(length);
+        matchingBracket = new int[length];
+        Arrays.fill(matchingBracket, -1);
+
+        int[] openBrackets = new int[8];
+        int open = 0;
+        for (int i = 0; i < length; i++) {
+            if (i > 0 && message.charAt(start + i - 1) == '\\' && !escaped.get(i - 1)) {
+                escaped.set(i);
+                continue;
+            }
+            char c = message.charAt(start + i);
+            if (c == '[') {
+                if (open == openBrackets.length) {
+                    openBrackets = Arrays.copyOf(openBrackets, open * 2);
+                }
+                openBrackets[open++] = i;
+            } else if (c == ']' && open > 0) {
+                matchingBracket[openBrackets[--open]] = i;
+            }
+        }
+
+        nextEventClose = new int[length + 1];
+        nextDefinitionClose = new int[length + 1];
+        nextEventClose[length] = -1;
+        nextDefinitionClose[length] = -1;
+        for (int i = length - 1; i >= 0; i--) {
+            char c = message.charAt(start + i);
+            boolean unescaped = !escaped.get(i);
+            nextEventClose[i] = unescaped && c == ']' && i + 1 < length && message.charAt(start + i + 1) == '('
+                    ? i : nextEventClose[i + 1];
+            nextDefinitionClose[i] = unescaped && c == ')' ? i : nextDefinitionClose[i + 1];
+        }
+
+        // Remember the next occurrence of every doubled formatting char at least two chars after the current index
+        closingFormat = new int[length];
+        int[] nextFormat = new int[FORMAT_CHARS.length()];
+        Arrays.fill(nextFormat, -1);
+        for (int i = length - 1; i >= 0; i--) {
+            int next = formatAt(message, start + i + 2, end);
+            if (next != -1) {
+                nextFormat[next] = i + 2;
+            }
+            int current = formatAt(message, start + i, end);
+            closingFormat[i] = current != -1 ? nextFormat[current] : -1;
+        }
+    }
+
+    /**
+     * Get the doubled formatting character at an index
+     * @param message   The message
+     * @param index     The index
+     * @param end       The end of the region
+     * @return          The index of the char in {@link #FORMAT_CHARS} or <tt>-1</tt> if there is no doubled formatting char
+     */
+    private static int formatAt(CharSequence message, int index, int end) {
+        if (index + 1 >= end || message.charAt(index) != message.charAt(index + 1)) {
+            return -1;
+        }
+        return FORMAT_CHARS.indexOf(message.charAt(index));
+    }
+
+    /**
+     * Check whether or not the character at an index is escaped
+     * @param index The index of the character
+     * @return Whether or not the character is escaped
+     */
+    boolean isEscaped(int index) {
+        return escaped.get(index - offset);
+    }
+
+    /**
+     * Get the index of the next unescaped <tt>](</tt> that separates an event's text from its definitions
+     * @param fromIndex The index to start at (inclusive)
+     * @return The index or <tt>-1</tt> if there is none
+     */
+    int nextEventClose(int fromIndex) {
+        return toMessageIndex(fromIndex - offset < nextEventClose.length ? nextEventClose[fromIndex - offset] : -1);
+    }
+
+    /**
+     * Get the index of the next unescaped <tt>)</tt> that closes an event's definitions
+     * @param fromIndex The index to start at (inclusive)
+     * @return The index or <tt>-1</tt> if there is none
+     */
+    int nextDefinitionClose(int fromIndex) {
+        return toMessageIndex(fromIndex - offset < nextDefinitionClose.length ? nextDefinitionClose[fromIndex - offset] : -1);
+    }
+
+    /**
+     * Get the index of the bracket that closes an opening bracket
+     * @param index The index of the opening bracket
+     * @return The index of the closing bracket or <tt>-1</tt> if it is never closed
+     */
+    int matchingBracket(int index) {
+        return toMessageIndex(matchingBracket[index - offset]);
+    }
+
+    /**
+     * Get the index of the doubled formatting character that closes the one at an index
+     * @param index The index of the opening doubled formatting character
+     * @return The index of the closing one or <tt>-1</tt> if there is none
+     */
+    int closingFormat(int index) {
+        return toMessageIndex(closingFormat[index - offset]);
+    }
+
+    private int toMessageIndex(int regionIndex) {
+        return regionIndex != -1 ? regionIndex + offset : -1;
+    }
+}
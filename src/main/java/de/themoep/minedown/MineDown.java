@@ -25,7 +25,13 @@ package de.themoep.minedown;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextDecoration;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * <h1>MineDown</h1>
@@ -83,6 +89,7 @@ public class MineDown {
     private String message;
     private final Replacer replacer = new Replacer();
     private final MineDownParser parser = new MineDownParser();
+    private PlaceholderResolver resolver = null;
     private Component component = null;
     
     /**
@@ -103,6 +110,80 @@ public class MineDown {
         return new MineDown(message).replace(replacements).toComponent();
     }
     
+    /**
+     * Compile a MineDown string to a template that can be rendered multiple times with different placeholder values
+     * @param message       The message to compile
+     * @return              The compiled template
+     */
+    public static MineDownTemplate compile(String message) {
+        return new MineDown(message).compile();
+    }
+
+    /**
+     * Parse many MineDown strings at once. The messages are split between the threads
+     * of the {@link ForkJoinPool#commonPool() common pool}.
+     * @param messages      The messages to parse
+     * @param settings      The settings to parse all messages with
+     * @return              The results in the same order as the messages, failed messages contain their error
+     */
+    public static List<BatchResult<Component>> parseAll(Collection<String> messages, MineDownSettings settings) {
+        return parseAll(messages, settings, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse many MineDown strings at once. The messages are split between the threads of the executor.
+     * @param messages      The messages to parse
+     * @param settings      The settings to parse all messages with
+     * @param executor      The executor to run on
+     * @return              The results in the same order as the messages, failed messages contain their error
+     */
+    public static List<BatchResult<Component>> parseAll(Collection<String> messages, MineDownSettings settings, Executor executor) {
+        Util.validate(settings != null, "Settings can't be null!");
+        MineDownCache cache = MineDownCache.global();
+        return Batch.run(messages, message -> cache != null ? cache.get(settings, message) : settings.parse(message), executor);
+    }
+
+    /**
+     * Parse a MineDown string to components and collect all problems in it instead of throwing them
+     * @param message       The message to parse
+     * @param settings      The settings to parse the message with
+     * @return              The result with the parsed components and the problems found in the message
+     */
+    public static ParseResult parseWithDiagnostics(String message, MineDownSettings settings) {
+        return settings.parseWithDiagnostics(message);
+    }
+
+    /**
+     * Parse a MineDown string to components on the {@link ForkJoinPool#commonPool() common pool}
+     * @param message       The message to translate
+     * @param replacements  Optional placeholder replacements
+     * @return              A future that completes with the parsed components
+     */
+    public static CompletableFuture<Component> parseAsync(String message, String... replacements) {
+        return new MineDown(message).replace(replacements).toComponentAsync();
+    }
+
+    /**
+     * Parse a MineDown string to components on a certain executor
+     * @param message       The message to translate
+     * @param executor      The executor to parse on
+     * @param replacements  Optional placeholder replacements
+     * @return              A future that completes with the parsed components
+     */
+    public static CompletableFuture<Component> parseAsync(String message, Executor executor, String... replacements) {
+        return new MineDown(message).replace(replacements).toComponentAsync(executor);
+    }
+
+    /**
+     * Parse a MineDown string directly to Minecraft's json chat format without creating components for it
+     * @param message       The message to translate
+     * @param settings      The settings to parse the message with
+     * @return              The json string
+     */
+    public static String toJson(String message, MineDownSettings settings) {
+        return settings.toJson(message);
+    }
+
     /**
      * Convert components to a MineDown string
      * @param component     The components to convert
@@ -118,12 +199,93 @@ public class MineDown {
      */
     public Component toComponent() {
         if (component() == null) {
-            component = replacer().replaceIn(parser().parse(message()).build());
+            if (resolver() != null) {
+                component = compile().render(replacements(), resolver());
+            } else if (replacer().replacements().isEmpty() && replacer().componentReplacements().isEmpty()) {
+                component = parseMessage();
+            } else {
+                // The placeholders are bound to slots when compiling, no need to search the parsed components
+                component = compile().render(replacements());
+            }
         }
 
         return component();
     }
     
+    /**
+     * Parse and convert the message to the component on the {@link ForkJoinPool#commonPool() common pool}
+     * @return A future that completes with the parsed component message
+     * @see #toComponentAsync(Executor)
+     */
+    public CompletableFuture<Component> toComponentAsync() {
+        return toComponentAsync(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse and convert the message to the component on a certain executor.
+     * <p>
+     * The message, replacements, parser settings and formatting are copied when this method is called, changing
+     * this instance afterwards doesn't affect the result. Parsing doesn't use thread locals and only the
+     * {@link MineDownCache#global() global cache}, if one is set, briefly locks one of its segments to look up
+     * or store a message, never while parsing. Any executor can be used, including one that starts a virtual
+     * thread per task.
+     * @param executor  The executor to parse on
+     * @return          A future that completes with the parsed component message
+     */
+    public CompletableFuture<Component> toComponentAsync(Executor executor) {
+        Util.validate(executor != null, "Executor can't be null!");
+        Component component = component();
+        if (component != null) {
+            return CompletableFuture.completedFuture(component);
+        }
+        MineDown snapshot = copy();
+        snapshot.parser().copy(parser(), true);
+        if (snapshot.resolver() != null) {
+            // Let the resolver decide where it loads the values
+            return CompletableFuture.supplyAsync(snapshot::compile, executor)
+                    .thenCompose(template -> template.renderAsync(snapshot.replacements(), snapshot.resolver()));
+        }
+        return CompletableFuture.supplyAsync(snapshot::toComponent, executor);
+    }
+
+    /**
+     * Parse the message once and compile it to a template that can be rendered multiple times.
+     * Uses the parser and placeholder settings of this MineDown instance.
+     * Replacements that were added to this instance are not applied, pass them to the template's render method instead.
+     * Uses the {@link MineDownCache#global() global cache} if one is set.
+     * @return The compiled template
+     */
+    public MineDownTemplate compile() {
+        MineDownCache cache = MineDownCache.global();
+        if (cache != null && parser().isInitialState()) {
+            return cache.template(parser().settings(), message(), placeholderPrefix(), placeholderSuffix(), ignorePlaceholderCase());
+        }
+        return new MineDownTemplate(message(), parser().context(),
+                placeholderPrefix(), placeholderSuffix(), ignorePlaceholderCase());
+    }
+
+    /**
+     * Parse the message, uses the {@link MineDownCache#global() global cache} if one is set
+     * @return The parsed component without any replacements
+     */
+    private Component parseMessage() {
+        if (parser().isInitialState()) {
+            MineDownCache cache = MineDownCache.global();
+            return cache != null ? cache.get(parser().settings(), message()) : parser().settings().parse(message());
+        }
+        return parser().settings().optimize(parser().parse(message()).build());
+    }
+
+    /**
+     * Get all text and component replacements of the replacer
+     * @return The replacements mapped placeholder to value
+     */
+    private Map<String, Object> replacements() {
+        Map<String, Object> replacements = new HashMap<>(replacer().replacements());
+        replacements.putAll(replacer().componentReplacements());
+        return replacements;
+    }
+
     /**
      * Remove a cached component and re-parse the next time {@link #toComponent} is called
      */
@@ -164,6 +326,26 @@ public class MineDown {
         replacer().replace(placeholder, replacement);
         return this;
     }
+
+    /**
+     * Set a resolver that computes the values of placeholders when they are needed.
+     * It is only asked for the placeholders in the message that don't have a replacement.
+     * @param resolver  The resolver or <tt>null</tt> to only use the replacements
+     * @return          The MineDown instance
+     */
+    public MineDown replace(PlaceholderResolver resolver) {
+        reset();
+        this.resolver = resolver;
+        return this;
+    }
+
+    /**
+     * Get the resolver that computes the values of placeholders when they are needed
+     * @return The resolver or <tt>null</tt> if only the replacements are used
+     */
+    public PlaceholderResolver resolver() {
+        return resolver;
+    }
     
     /**
      * Set the placeholder indicator for both prefix and suffix
@@ -292,6 +474,18 @@ public class MineDown {
         return this;
     }
 
+    /**
+     * Optimize the parsed components? They look the same but adjacent text with
+     * the same style is merged and shared styles are moved to a parent component. (Default: false)
+     * @param optimize  Whether or not to optimize the parsed components
+     * @return          The MineDown instance
+     */
+    public MineDown optimize(boolean optimize) {
+        reset();
+        parser().optimize(optimize);
+        return this;
+    }
+
     /**
      * Enable an option. Unfilter it if you filtered it before.
      * @param option    The option to enable
@@ -405,6 +599,7 @@ public class MineDown {
     public MineDown copy(MineDown from) {
         replacer().copy(from.replacer());
         parser().copy(from.parser());
+        resolver = from.resolver();
         return this;
     }
 
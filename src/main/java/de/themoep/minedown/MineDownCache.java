@@ -0,0 +1,291 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.kyori.adventure.text.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A size-bounded cache of parsed messages that can be shared between threads.
+ * <p>
+ * Entries are keyed by the message text and the {@link MineDownSettings} that it was parsed with.
+ * As both the settings and the parsed {@link Component}s and {@link MineDownTemplate}s are immutable
+ * the cached entry is returned directly. The least recently used entries get evicted once the cache is full.
+ * <p>
+ * The cache is opt-in, set it with {@link #global(MineDownCache)} to let {@link MineDown} use it.
+ */
+public final class MineDownCache {
+
+    private static volatile MineDownCache global = null;
+
+    private final int maximumSize;
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Create a new cache
+     * @param maximumSize The maximum amount of messages to cache
+     */
+    public MineDownCache(int maximumSize) {
+        Util.validate(maximumSize > 0, "Maximum size has to be positive!");
+        this.maximumSize = maximumSize;
+        // Split into locked segments so that threads don't wait on each other, small caches use less
+        // segments as every segment can only hold its part of the maximum size
+        int segmentCount = 1;
+        while (segmentCount < 16 && segmentCount * 2 * 8 <= maximumSize) {
+            segmentCount *= 2;
+        }
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0));
+        }
+    }
+
+    /**
+     * Get the cache that {@link MineDown} uses
+     * @return The global cache or <tt>null</tt> if messages aren't cached (Default: null)
+     */
+    public static MineDownCache global() {
+        return global;
+    }
+
+    /**
+     * Set the cache that {@link MineDown} should use
+     * @param cache The cache to use or <tt>null</tt> to not cache messages
+     */
+    public static void global(MineDownCache cache) {
+        global = cache;
+    }
+
+    /**
+     * Get a parsed message from the cache or parse and cache it if it isn't cached yet
+     * @param settings  The settings to parse the message with
+     * @param message   The message to parse
+     * @return          The parsed component
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    public Component get(MineDownSettings settings, String message) throws IllegalArgumentException {
+        Key key = new Key(settings, message, null);
+        Segment segment = segment(key);
+        Component component;
+        synchronized (segment) {
+            component = (Component) segment.get(key);
+        }
+        if (component != null) {
+            hits.increment();
+            return component;
+        }
+        misses.increment();
+        // Parse outside of the lock, two threads parsing the same message at once results in equal components
+        component = settings.parse(message);
+        synchronized (segment) {
+            segment.put(key, component);
+        }
+        return component;
+    }
+
+    /**
+     * Get a compiled template from the cache or compile and cache it if it isn't cached yet.
+     * Templates are cached separately from the parsed components of the same message.
+     * @param settings              The settings to parse the message with
+     * @param message               The message to compile
+     * @param placeholderPrefix     The placeholder indicator's prefix
+     * @param placeholderSuffix     The placeholder indicator's suffix
+     * @param ignorePlaceholderCase Whether or not the case of the placeholders is ignored when rendering
+     * @return                      The compiled template
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    public MineDownTemplate template(MineDownSettings settings, String message, String placeholderPrefix, String placeholderSuffix, boolean ignorePlaceholderCase) throws IllegalArgumentException {
+        Key key = new Key(settings, message, placeholderPrefix + '\0' + placeholderSuffix + '\0' + ignorePlaceholderCase);
+        Segment segment = segment(key);
+        MineDownTemplate template;
+        synchronized (segment) {
+            template = (MineDownTemplate) segment.get(key);
+        }
+        if (template != null) {
+            hits.increment();
+            return template;
+        }
+        misses.increment();
+        template = new MineDownTemplate(message, new ParseContext(settings), placeholderPrefix, placeholderSuffix, ignorePlaceholderCase);
+        synchronized (segment) {
+            segment.put(key, template);
+        }
+        return template;
+    }
+
+    /**
+     * Get a parsed message from the cache without parsing it
+     * @param settings  The settings the message was parsed with
+     * @param message   The message
+     * @return          The cached component or <tt>null</tt> if the message isn't cached
+     */
+    public Component getIfPresent(MineDownSettings settings, String message) {
+        Key key = new Key(settings, message, null);
+        Segment segment = segment(key);
+        synchronized (segment) {
+            return (Component) segment.get(key);
+        }
+    }
+
+    /**
+     * Remove all cached messages. The counters are not reset.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Get the maximum amount of messages that this cache holds
+     * @return The maximum size
+     */
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Get the amount of messages that are currently cached
+     * @return The amount of cached messages
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Get how often a cached message was returned
+     * @return The amount of cache hits
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get how often a message had to be parsed as it wasn't cached
+     * @return The amount of cache misses
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get how often a message got removed to make space for another one
+     * @return The amount of evictions
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    private Segment segment(Key key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & (segments.length - 1)];
+    }
+
+    @Override
+    public String toString() {
+        return "MineDownCache{" +
+                "size=" + size() +
+                ", maximumSize=" + maximumSize +
+                ", hits=" + hits() +
+                ", misses=" + misses() +
+                ", evictions=" + evictions() +
+                '}';
+    }
+
+    /**
+     * A part of the cache in least recently used order, only accessed while holding its lock
+     */
+    private final class Segment extends LinkedHashMap<Key, Object> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class Key {
+        private final MineDownSettings settings;
+        private final String message;
+        private final String placeholders;
+        private final int hash;
+
+        /**
+         * @param settings      The settings
+         * @param message       The message
+         * @param placeholders  The placeholder settings of a template or <tt>null</tt> for a parsed component
+         */
+        private Key(MineDownSettings settings, String message, String placeholders) {
+            this.settings = settings;
+            this.message = message;
+            this.placeholders = placeholders;
+            this.hash = 31 * (31 * settings.hashCode() + message.hashCode()) + Objects.hashCode(placeholders);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hash == key.hash && message.equals(key.message) && settings.equals(key.settings)
+                    && Objects.equals(placeholders, key.placeholders);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of how messages are handled by the parser, shared by all threads.
+ */
+public final class MineDownMetrics {
+
+    private static final LongAdder plainTextHits = new LongAdder();
+    private static final LongAdder plainTextMisses = new LongAdder();
+
+    private MineDownMetrics() {}
+
+    /**
+     * Count a message that was checked for markup
+     * @param plain Whether or not it could take the plain text path
+     */
+    static void plainText(boolean plain) {
+        (plain ? plainTextHits : plainTextMisses).increment();
+    }
+
+    /**
+     * Get the amount of messages that contained no markup and skipped the parser
+     * @return The amount of plain text messages
+     */
+    public static long plainTextHits() {
+        return plainTextHits.sum();
+    }
+
+    /**
+     * Get the amount of messages that had to be parsed fully
+     * @return The amount of messages with markup or urls
+     */
+    public static long plainTextMisses() {
+        return plainTextMisses.sum();
+    }
+
+    /**
+     * Get the share of messages that contained no markup and skipped the parser
+     * @return The hit rate between 0 and 1, 0 if no message was checked yet
+     */
+    public static double plainTextHitRate() {
+        long hits = plainTextHits();
+        long total = hits + plainTextMisses();
+        return total > 0 ? (double) hits / total : 0;
+    }
+
+    /**
+     * Reset all counters
+     */
+    public static void reset() {
+        plainTextHits.reset();
+        plainTextMisses.reset();
+    }
+
+    /**
+     * Get a summary of all counters
+     * @return The summary
+     */
+    public static String summary() {
+        return "MineDownMetrics{" +
+                "plainTextHits=" + plainTextHits() +
+                ", plainTextMisses=" + plainTextMisses() +
+                ", plainTextHitRate=" + plainTextHitRate() +
+                '}';
+    }
+}
@@ -30,64 +30,27 @@ import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
 import net.kyori.adventure.text.format.*;
 
+import java.nio.CharBuffer;
 import java.util.*;
-import java.util.regex.Matcher;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 public class MineDownParser {
 
     /**
-     * The character to use as a special color code. (Default: ampersand &amp;)
+     * The configuration of this parser
      */
-    private char colorChar = '&';
+    private MineDownSettings settings = MineDownSettings.DEFAULT;
 
     /**
-     * All enabled options
+     * The pattern of the urls that get detected. The parser itself detects them without a regex.
      */
-    private Set<Option> enabledOptions = EnumSet.of(
-            Option.LEGACY_COLORS,
-            Option.SIMPLE_FORMATTING,
-            Option.ADVANCED_FORMATTING
-    );
+    public static final Pattern URL_PATTERN = Pattern.compile("^(?:(https?)://)?([-\\w_\\.]{2,}\\.[a-z]{2," + UrlScanner.MAX_TLD_LENGTH + "})(/\\S*)?$");
 
     /**
-     * All filters
+     * The character that Minecraft itself uses for legacy color codes
      */
-    private Set<Option> filteredOptions = EnumSet.noneOf(Option.class);
-
-    /**
-     * Whether to accept malformed strings or not (Default: false)
-     */
-    private boolean lenient = false;
-
-    /**
-     * Should the parser try to detect if RGB/font support is available?
-     */
-    private boolean backwardsCompatibility = true;
-
-    /**
-     * Detect urls in strings and add events to them? (Default: true)
-     */
-    private boolean urlDetection = true;
-
-    /**
-     * The text to display when hovering over an URL. Has a %url% placeholder.
-     */
-    private String urlHoverText = "Click to open url";
-
-    /**
-     * Automatically add http to values of open_url when there doesn't exist any? (Default: true)
-     */
-    private boolean autoAddUrlPrefix = true;
-
-    /**
-     * The max width the hover text should have.
-     * Minecraft itself will wrap after 60 characters.
-     * Won't apply if the text already includes new lines.
-     */
-    private int hoverTextWidth = 60;
-
-    public static final Pattern URL_PATTERN = Pattern.compile("^(?:(https?)://)?([-\\w_\\.]{2,}\\.[a-z]{2,4})(/\\S*)?$");
+    public static final char LEGACY_COLOR_CHAR = '\u00A7';
 
     public static final String FONT_PREFIX = "font=";
     public static final String COLOR_PREFIX = "color=";
@@ -95,7 +58,6 @@ public class MineDownParser {
     public static final String HOVER_PREFIX = "hover=";
 
     private ComponentBuilder builder;
-    private StringBuilder value;
     private String font;
     private TextColor color;
     private Set<TextDecoration> format;
@@ -106,6 +68,15 @@ public class MineDownParser {
         reset();
     }
 
+    /**
+     * Create a new parser with certain settings
+     * @param settings The settings to use
+     */
+    public MineDownParser(MineDownSettings settings) {
+        this();
+        this.settings = settings;
+    }
+
     /**
      * Create a ComponentBuilder by parsing a {@link MineDown} message
      * @param message The message to parse
@@ -113,234 +84,101 @@ public class MineDownParser {
      * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
      */
     public ComponentBuilder parse(String message) throws IllegalArgumentException {
-        Matcher urlMatcher = urlDetection() ? URL_PATTERN.matcher(message) : null;
-        boolean escaped = false;
-        for (int i = 0; i < message.length(); i++) {
-            char c = message.charAt(i);
-
-            boolean isEscape = c == '\\' && i + 1 < message.length();
-            boolean isColorCode = isEnabled(Option.LEGACY_COLORS)
-                    && i + 1 < message.length() && (c == ChatColor.COLOR_CHAR || c == colorChar());
-            boolean isEvent = false;
-            if (isEnabled(Option.ADVANCED_FORMATTING) && c == '[') {
-                int nextEventClose = Util.indexOfNotEscaped(message, "](", i + 1);
-                if (nextEventClose != -1 && nextEventClose + 2 < message.length()) {
-                    int nextDefClose = Util.indexOfNotEscaped(message, ")", i + 2);
-                    if (nextDefClose != -1) {
-                        int depth = 1;
-                        isEvent = true;
-                        boolean innerEscaped = false;
-                        for (int j = i + 1; j < nextEventClose; j++) {
-                            if (innerEscaped) {
-                                innerEscaped = false;
-                            } else if (message.charAt(j) == '\\') {
-                                innerEscaped = true;
-                            } else if (message.charAt(j) == '[') {
-                                depth++;
-                            } else if (message.charAt(j) == ']') {
-                                depth--;
-                            }
-                            if (depth == 0) {
-                                isEvent = false;
-                                break;
-                            }
-                        }
-                    }
-                }
-            }
-            boolean isFormatting = isEnabled(Option.SIMPLE_FORMATTING)
-                    && (c == '_' || c == '*' || c == '~' || c == '?' || c == '#') && Util.isDouble(message, i)
-                    && message.indexOf(String.valueOf(c) + String.valueOf(c), i + 2) != -1;
-
-            if (escaped) {
-                escaped = false;
-
-                // Escaping
-            } else if (isEscape) {
-                escaped = true;
-                continue;
-
-                // Legacy color codes
-            } else if (isColorCode) {
-                i++;
-                char code = message.charAt(i);
-                if (code >= 'A' && code <= 'Z') {
-                    code += 32;
-                }
-                boolean isLegacyHex = code == 'x';
-                if (isLegacyHex) {
-                    i = i + 2;
-                }
-                TextColor encoded = null;
-                Option filterOption = null;
-                StringBuilder colorString = new StringBuilder();
-                for (int j = i; j < message.length(); j++) {
-                    char c1 = message.charAt(j);
-                    // Check if we have reached another indicator char and have a color string that isn't just one char
-                    if (c1 == c) {
-                        if (isLegacyHex) {
-                            continue;
-                        } else if (colorString.length() > 1) {
-                            try {
-                                encoded = parseColor(colorString.toString());
-                                filterOption = Option.SIMPLE_FORMATTING;
-                                i = j;
-                            } catch (IllegalArgumentException ignored) {
-                            }
-                            break;
-                        }
-                    }
-                    if (!isLegacyHex && c1 != '_' && c1 != '#' && (c1 < 'A' || c1 > 'Z') && (c1 < 'a' || c1 > 'z') && (c1 < '0' || c1 > '9')) {
-                        break;
-                    }
-                    if (!isLegacyHex || c1 != 'x') {
-                        colorString.append(c1);
-                        if (isLegacyHex && colorString.length() == 6) {
-                            try {
-                                encoded = parseColor(colorString.toString());
-                                filterOption = Option.LEGACY_COLORS;
-                                i = j;
-                            } catch (IllegalArgumentException ignored) {
-                            }
-                            break;
-                        }
-                    }
-                }
-                if (encoded == null) {
-                    encoded = ChatColor.getByChar(code);
-                    if (encoded != null) {
-                        filterOption = Option.LEGACY_COLORS;
-                    }
-                }
-
-                if (encoded != null) {
-                    if (!isFiltered(filterOption)) {
-                        if (encoded == ChatColor.RESET) {
-                            appendValue();
-                            color = null;
-                            Util.applyFormat(builder, format);
-                            format = new HashSet<>();
-                        } else if (!Util.isFormat(encoded)) {
-                            if (value.length() > 0) {
-                                appendValue();
-                            }
-                            color = encoded;
-                            format = new HashSet<>();
-                        } else {
-                            if (value.length() > 0) {
-                                appendValue();
-                            }
-                            format.add(encoded);
-                        }
-                    }
-                } else {
-                    value.append(c).append(code);
-                }
-                continue;
-
-                // Events
-            } else if (isEvent) {
-                int index = Util.indexOfNotEscaped(message, "](", i + 1);
-                int endIndex = Util.indexOfNotEscaped(message, ")", index + 2);
-                appendValue();
-                if (!isFiltered(Option.ADVANCED_FORMATTING)) {
-                    append(parseEvent(message.substring(i + 1, index), message.substring(index + 2, endIndex)));
-                } else {
-                    append(copy(true).parse(message.substring(i + 1, index)));
-                }
-                i = endIndex;
-                continue;
-
-                // Simple formatting
-            } else if (isFormatting) {
-                int endIndex = message.indexOf(String.valueOf(c) + String.valueOf(c), i + 2);
-                Set<TextDecoration> formats = new HashSet<>(format);
-                if (!isFiltered(Option.SIMPLE_FORMATTING)) {
-                    formats.add(MineDown.getFormatFromChar(c));
-                }
-                appendValue();
-                append(copy(true).format(formats).parse(message.substring(i + 2, endIndex)));
-                i = endIndex + 1;
-                continue;
-            }
+        return parse(message, 0, message.length());
+    }
 
-            // URL
-            if (urlDetection() && urlMatcher != null) {
-                int urlEnd = message.indexOf(' ', i);
-                if (urlEnd == -1) {
-                    urlEnd = message.length();
-                }
-                if (urlMatcher.region(i, urlEnd).find()) {
-                    appendValue();
-                    value = new StringBuilder(message.substring(i, urlEnd));
-                    appendValue();
-                    i = urlEnd - 1;
-                    continue;
-                }
-            }
+    /**
+     * Create a ComponentBuilder by parsing a {@link MineDown} message
+     * @param message The message to parse, e.g. a {@link StringBuilder} or a {@link java.nio.CharBuffer}
+     * @return The parsed ComponentBuilder
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    public ComponentBuilder parse(CharSequence message) throws IllegalArgumentException {
+        return parse(message, 0, message.length());
+    }
 
-            // It's normal text, just append the character
-            value.append(message.charAt(i));
-        }
-        if (escaped) {
-            value.append('\\');
-        }
-        appendValue();
+    /**
+     * Create a ComponentBuilder by parsing a region of a {@link MineDown} message.
+     * The region is parsed in place, it doesn't get copied into a new string.
+     * @param message The message to parse, e.g. a {@link StringBuilder} or a {@link java.nio.CharBuffer}
+     * @param start   The index in the message to start parsing at (inclusive)
+     * @param end     The index in the message to stop parsing at (exclusive)
+     * @return The parsed ComponentBuilder
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     * @throws IndexOutOfBoundsException Thrown when the region is not inside of the message
+     */
+    public ComponentBuilder parse(CharSequence message, int start, int end) throws IllegalArgumentException {
         if (builder == null) {
             builder = TextComponent.builder();
         }
-        return builder;
+        return new ParseContext(settings)
+                .builder((TextComponent.Builder) builder)
+                .style(font, color, format, clickEvent, hoverEvent)
+                .parse(message, start, end);
     }
 
-    private void append(ComponentBuilder builder) {
-        append(builder.build());
+    /**
+     * Parse a {@link MineDown} message and collect all problems instead of throwing them.
+     * Starts with the current formatting of this parser but doesn't append to its builder.
+     * @param message The message to parse
+     * @return The result with the parsed component and the problems found in the message
+     */
+    public ParseResult parseWithDiagnostics(CharSequence message) {
+        List<ParseResult.Problem> problems = new ArrayList<>();
+        Component component = settings.optimize(new ParseContext(settings)
+                .style(font, color, format, clickEvent, hoverEvent)
+                .problems(problems)
+                .parse(message, 0, message.length())
+                .build());
+        return new ParseResult(component, problems);
     }
 
-    private void append(Component component) {
-        if (this.builder == null) {
-            if (component.length > 0) {
-                this.builder = new ComponentBuilder(component[0]);
-                for (int i = 1; i < component.length; i++) {
-                    builder.append(component[i]);
-                }
-            } else {
-                this.builder = TextComponent.builder();
-            }
-        } else {
-            this.builder.append(component);
-        }
+    /**
+     * Render a {@link MineDown} message directly to a legacy string with <tt>&sect;</tt> codes without creating components.
+     * Starts with the current formatting of this parser.
+     * Hex colors are replaced with the nearest legacy color, fonts and events are left out.
+     * @param message The message to render
+     * @param out     The builder to append the legacy string to, can be reused for multiple messages
+     * @return The builder that was passed in
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    public StringBuilder renderLegacy(CharSequence message, StringBuilder out) throws IllegalArgumentException {
+        context().writer(new LegacyWriter(out, LEGACY_COLOR_CHAR)).parse(message, 0, message.length());
+        return out;
     }
 
-    private void appendValue() {
-        if (builder == null) {
-            builder = TextComponent.builder(value.toString());
-        } else {
-            builder.append(value.toString());
-        }
-        if (!backwardsCompatibility || HAS_FONT_SUPPORT) {
-            builder.style(Style.builder().font(Key.of(font)).build());
-        }
-        builder.color(color);
-        Util.applyFormat(builder, format);
-        if (urlDetection() && URL_PATTERN.matcher(value).matches()) {
-            String v = value.toString();
-            if (!v.startsWith("http://") && !v.startsWith("https://")) {
-                v = "http://" + v;
-            }
-            builder.clickEvent(ClickEvent.of(ClickEvent.Action.OPEN_URL, v));
-            if (urlHoverText() != null && !urlHoverText().isEmpty()) {
-                builder.hoverEvent(HoverEvent.of(HoverEvent.Action.SHOW_TEXT,
-                        new MineDown(urlHoverText()).replace("url", value.toString()).toComponent()
-                ));
-            }
-        }
-        if (clickEvent != null) {
-            builder.clickEvent(clickEvent);
-        }
-        if (hoverEvent != null) {
-            builder.hoverEvent(hoverEvent);
-        }
-        value = new StringBuilder();
+    /**
+     * Create a context that parses with the settings and starts with the current formatting of this parser
+     * @return The new context
+     */
+    ParseContext context() {
+        return new ParseContext(settings).style(font, color, format, clickEvent, hoverEvent);
+    }
+
+    /**
+     * Render a {@link MineDown} message directly to a legacy string with <tt>&sect;</tt> codes without creating components.
+     * Starts with the current formatting of this parser.
+     * @param message The message to render
+     * @return The legacy string
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     * @see #renderLegacy(CharSequence, StringBuilder)
+     */
+    public String toLegacy(CharSequence message) throws IllegalArgumentException {
+        return renderLegacy(message, new StringBuilder(message.length() + 16)).toString();
+    }
+
+    /**
+     * Create a ComponentBuilder by parsing a region of a {@link MineDown} message that is stored in a char array.
+     * The region is parsed in place, it doesn't get copied into a new string.
+     * @param message The message to parse
+     * @param start   The index in the array to start parsing at (inclusive)
+     * @param end     The index in the array to stop parsing at (exclusive)
+     * @return The parsed ComponentBuilder
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     * @throws IndexOutOfBoundsException Thrown when the region is not inside of the array
+     */
+    public ComponentBuilder parse(char[] message, int start, int end) throws IllegalArgumentException {
+        return parse(CharBuffer.wrap(message), start, end);
     }
 
     /**
@@ -350,203 +188,44 @@ public class MineDownParser {
      * @return The parsed ComponentBuilder for this string
      */
     public ComponentBuilder parseEvent(String text, String definitions) {
-        List<String> defParts = new ArrayList<>();
-        if (definitions.startsWith(" ")) {
-            defParts.add("");
-        }
-        Collections.addAll(defParts, definitions.split(" "));
-        if (definitions.endsWith(" ")) {
-            defParts.add("");
-        }
-        String font = null;
-        TextColor color = null;
-        Set<TextDecoration> formats = new HashSet<>();
-        ClickEvent clickEvent = null;
-        HoverEvent hoverEvent = null;
-
-        int formatEnd = -1;
-
-        for (int i = 0; i < defParts.size(); i++) {
-            String definition = defParts.get(i);
-            TextColor parsed = parseColor(definition);
-            if (parsed != null) {
-                if (Util.isFormat(parsed)) {
-                    // TODO: better handling of color vs format
-                    formats.add(parsed);
-                } else {
-                    color = parsed;
-                }
-                formatEnd = i;
-                continue;
-            }
-
-            if (definition.toLowerCase().startsWith(FONT_PREFIX)) {
-                font = definition.substring(FONT_PREFIX.length());
-            }
-
-            if (definition.toLowerCase().startsWith(COLOR_PREFIX)) {
-                color = parseColor(definition);
-                if (!lenient() && Util.isFormat(color)) {
-                    throw new IllegalArgumentException(color + " is a format and not a color!");
-                }
-                formatEnd = i;
-                continue;
-            }
-
-            if (definition.toLowerCase().startsWith(FORMAT_PREFIX)) {
-                for (String formatStr : definition.substring(FORMAT_PREFIX.length()).split(",")) {
-                    TextColor format = parseColor(formatStr);
-                    if (!lenient() && !Util.isFormat(format)) {
-                        throw new IllegalArgumentException(formats + " is a color and not a format!");
-                    }
-                    formats.add(format);
-                }
-                formatEnd = i;
-                continue;
-            }
-
-            if (i == formatEnd + 1 && URL_PATTERN.matcher(definition).matches()) {
-                if (!definition.startsWith("http://") && !definition.startsWith("https://")) {
-                    definition = "http://" + definition;
-                }
-                clickEvent = ClickEvent.of(ClickEvent.Action.OPEN_URL, definition);
-                continue;
-            }
-
-            ClickEvent.Action clickAction = definition.startsWith("/") ? ClickEvent.Action.RUN_COMMAND : null;
-            HoverEvent.Action hoverAction = null;
-            if (definition.toLowerCase().startsWith(HOVER_PREFIX)) {
-                hoverAction = HoverEvent.Action.SHOW_TEXT;
-            }
-            String[] parts = definition.split("=", 2);
-            try {
-                hoverAction = HoverEvent.Action.NAMES.value(parts[0].toUpperCase());
-            } catch (IllegalArgumentException ignored) {
-            }
-            try {
-                clickAction = ClickEvent.Action.valueOf(parts[0].toUpperCase());
-            } catch (IllegalArgumentException ignored) {
-            }
-
-            int bracketDepth = parts.length > 1 && parts[1].startsWith("{") && (clickAction != null || hoverAction != null) ? 1 : 0;
-
-            StringBuilder value = new StringBuilder();
-            if (parts.length > 1 && clickAction != null || hoverAction != null) {
-                if (bracketDepth > 0) {
-                    value.append(parts[1].substring(1));
-                } else {
-                    value.append(parts[1]);
-                }
-            } else {
-                value.append(definition);
-            }
-
-            for (i = i + 1; i < defParts.size(); i++) {
-                String part = defParts.get(i);
-                if (bracketDepth == 0) {
-                    int equalsIndex = part.indexOf('=');
-                    if (equalsIndex > 0 && !Util.isEscaped(part, equalsIndex)) {
-                        i--;
-                        break;
-                    }
-                }
-                value.append(" ");
-                if (bracketDepth > 0) {
-                    int startBracketIndex = part.indexOf("={");
-                    if (startBracketIndex > 0 && !Util.isEscaped(part, startBracketIndex) && !Util.isEscaped(part, startBracketIndex + 1)) {
-                        bracketDepth++;
-                    }
-                    if (part.endsWith("}") && !Util.isEscaped(part, part.length() - 1)) {
-                        bracketDepth--;
-                        if (bracketDepth == 0) {
-                            value.append(part, 0, part.length() - 1);
-                            break;
-                        }
-                    }
-                }
-                value.append(part);
-            }
+        return parseEvent(text, 0, text.length(), definitions, 0, definitions.length());
+    }
 
-            if (clickAction != null) {
-                String v = value.toString();
-                if (autoAddUrlPrefix() && clickAction == ClickEvent.Action.OPEN_URL && !v.startsWith("http://") && !v.startsWith("https://")) {
-                    v = "http://" + v;
-                }
-                clickEvent = ClickEvent.of(clickAction, v);
-            } else if (hoverAction == null) {
-                hoverAction = HoverEvent.Action.SHOW_TEXT;
-            }
-            if (hoverAction != null) {
-                String valueStr = value.toString();
-                if (hoverAction == HoverEvent.Action.SHOW_TEXT) {
-                    hoverEvent = HoverEvent.of(hoverAction, copy(false).urlDetection(false).parse(
-                           Util.wrap(valueStr, hoverTextWidth())
-                    ).build());
-                } else if (hoverAction == HoverEvent.Action.SHOW_ENTITY) {
-                    String[] valueParts = valueStr.split(":", 2);
-                    try {
-                        String[] additionalParts = valueParts[1].split(" ", 2);
-                        if (!additionalParts[0].contains(":")) {
-                            additionalParts[0] = "minecraft:" + additionalParts[0];
-                        }
-                        hoverEvent = new HoverEvent(hoverAction, new Entity(
-                                additionalParts[0], valueParts[0],
-                                additionalParts.length > 1 && additionalParts[1] != null ?
-                                        copy(false).urlDetection(false).parse(additionalParts[1]).build() : null
-                        ));
-                    } catch (Exception e) {
-                        if (!lenient()) {
-                            if (valueParts.length < 2) {
-                                throw new IllegalArgumentException("Invalid entity definition. Needs to be of format uuid:id or uuid:namespace:id!");
-                            }
-                            throw new IllegalArgumentException(e.getMessage());
-                        }
-                    }
-                } else if (hoverAction == HoverEvent.Action.SHOW_ITEM) {
-                    String[] valueParts = valueStr.split(" ", 2);
-                    String id = valueParts[0];
-                    if (!id.contains(":")) {
-                        id = "minecraft:" + id;
-                    }
-                    int count = 1;
-                    int countIndex = valueParts[0].indexOf('*');
-                    if (countIndex > 0 && countIndex + 1 < valueParts[0].length()) {
-                        try {
-                            count = Integer.parseInt(valueParts[0].substring(countIndex + 1));
-                            id = valueParts[0].substring(0, countIndex);
-                        } catch (NumberFormatException e) {
-                            if (!lenient()) {
-                                throw new IllegalArgumentException(e.getMessage());
-                            }
-                        }
-                    }
-                    ItemTag tag = null;
-                    if (valueParts.length > 1 && valueParts[1] != null) {
-                        tag = ItemTag.ofNbt(valueParts[1]);
-                    }
-
-                    hoverEvent = new HoverEvent(hoverAction, new Item(
-                            id, count, tag
-                    ));
-                }
-            }
-        }
+    /**
+     * Parse a {@link MineDown} event from regions of char sequences without copying the text
+     * @param text            The sequence containing the display text
+     * @param textStart       The start of the display text (inclusive)
+     * @param textEnd         The end of the display text (exclusive)
+     * @param definitions     The sequence containing the event definitions
+     * @param definitionStart The start of the event definitions (inclusive)
+     * @param definitionEnd   The end of the event definitions (exclusive)
+     * @return The parsed ComponentBuilder for this event
+     */
+    public ComponentBuilder parseEvent(CharSequence text, int textStart, int textEnd, CharSequence definitions, int definitionStart, int definitionEnd) {
+        ParseContext context = new ParseContext(settings.withoutUrlDetection());
+        context.applyDefinitions(definitions, definitionStart, definitionEnd);
+        return context.parse(text, textStart, textEnd);
+    }
 
-        if (clickEvent != null && hoverEvent == null) {
-            hoverEvent = HoverEvent.of(HoverEvent.Action.SHOW_TEXT,
-                    TextComponent.builder(clickEvent.action().toString().toLowerCase().replace('_', ' ')).color(NamedTextColor.BLUE)
-                            .append(" " + clickEvent.value()).color(NamedTextColor.WHITE)
-                            .build());
-        }
+    /**
+     * Parse a message so that it can be edited and parsed again without parsing all of it.
+     * Uses the settings of this parser but not its current formatting.
+     * @param message The message to parse
+     * @return The result that can be edited
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    public IncrementalParseResult parseIncremental(String message) throws IllegalArgumentException {
+        return IncrementalParseResult.parse(settings, message);
+    }
 
-        return copy()
-                .urlDetection(false)
-                .font(font)
-                .color(color)
-                .format(formats)
-                .clickEvent(clickEvent)
-                .hoverEvent(hoverEvent)
-                .parse(text);
+    /**
+     * Create a parser for documents that get read in chunks, e.g. from a file.
+     * Uses the settings of this parser but not its current formatting.
+     * @param consumer The consumer of the parsed segments
+     * @return The stream parser
+     */
+    public MineDownStreamParser stream(Consumer<Component> consumer) {
+        return new MineDownStreamParser(settings, consumer);
     }
 
     protected ComponentBuilder builder() {
@@ -558,15 +237,6 @@ public class MineDownParser {
         return this;
     }
 
-    protected MineDownParser value(StringBuilder value) {
-        this.value = value;
-        return this;
-    }
-
-    protected StringBuilder value() {
-        return this.value;
-    }
-
     private MineDownParser font(String font) {
         this.font = font;
         return this;
@@ -613,19 +283,15 @@ public class MineDownParser {
     }
 
     public static /* Nullble */ TextColor resolveHex(final String color) {
-        return TextColor.fromHexString(color);
+        return color.startsWith("#") ? ColorResolver.hex(color, 1, color.length()) : null;
     }
 
     public static /* Nullable */ TextColor resolveNamed(final String color) {
-        return NamedTextColor.NAMES.value(color.toLowerCase(Locale.ROOT));
+        return ColorResolver.named(color, 0, color.length());
     }
 
     public static  /* Nullable */ TextColor parseColor(final String color) {
-        if (color.charAt(0) == '#') {
-            return resolveHex(color);
-        } else {
-            return resolveNamed(color);
-        }
+        return ColorResolver.color(color, 0, color.length());
     }
 
     /**
@@ -661,14 +327,7 @@ public class MineDownParser {
      * @return This parser's instance
      */
     public MineDownParser copy(MineDownParser from, boolean formatting) {
-        lenient(from.lenient());
-        urlDetection(from.urlDetection());
-        urlHoverText(from.urlHoverText());
-        autoAddUrlPrefix(from.autoAddUrlPrefix());
-        hoverTextWidth(from.hoverTextWidth());
-        enabledOptions(from.enabledOptions());
-        filteredOptions(from.filteredOptions());
-        colorChar(from.colorChar());
+        settings(from.settings());
         if (formatting) {
             format(from.format());
             color(from.color());
@@ -679,13 +338,22 @@ public class MineDownParser {
         return this;
     }
 
+    /**
+     * Check whether or not the parser is still in its initial state,
+     * only then parsing a message has the same result as parsing it with just the settings
+     * @return Whether or not nothing was parsed yet and no formatting was set
+     */
+    boolean isInitialState() {
+        return builder == null && font == null && color == null && format.isEmpty()
+                && clickEvent == null && hoverEvent == null;
+    }
+
     /**
      * Reset the parser state to the start
      * @return The parser's instance
      */
     public MineDownParser reset() {
         builder = null;
-        value = new StringBuilder();
         font = null;
         color = null;
         format = new HashSet<>();
@@ -720,7 +388,7 @@ public class MineDownParser {
      * @return <tt>true</tt> if it's enabled; <tt>false</tt> if not
      */
     public boolean isEnabled(Option option) {
-        return enabledOptions().contains(option);
+        return settings.isEnabled(option);
     }
 
     /**
@@ -729,7 +397,7 @@ public class MineDownParser {
      * @return The parser instace
      */
     public MineDownParser enable(Option option) {
-        enabledOptions().add(option);
+        settings = settings.toBuilder().enable(option).build();
         return this;
     }
 
@@ -741,7 +409,7 @@ public class MineDownParser {
      * @return The parser instace
      */
     public MineDownParser disable(Option option) {
-        enabledOptions().remove(option);
+        settings = settings.toBuilder().disable(option).build();
         return this;
     }
 
@@ -751,7 +419,7 @@ public class MineDownParser {
      * @return <tt>true</tt> if it's enabled; <tt>false</tt> if not
      */
     public boolean isFiltered(Option option) {
-        return filteredOptions().contains(option);
+        return settings.isFiltered(option);
     }
 
     /**
@@ -761,8 +429,7 @@ public class MineDownParser {
      * @return The parser instance
      */
     public MineDownParser filter(Option option) {
-        filteredOptions().add(option);
-        enabledOptions().add(option);
+        settings = settings.toBuilder().filter(option).build();
         return this;
     }
 
@@ -772,7 +439,7 @@ public class MineDownParser {
      * @return The parser instance
      */
     public MineDownParser unfilter(Option option) {
-        filteredOptions().remove(option);
+        settings = settings.toBuilder().unfilter(option).build();
         return this;
     }
 
@@ -788,7 +455,7 @@ public class MineDownParser {
 
             boolean isEscape = c == '\\';
             boolean isColorCode = isEnabled(Option.LEGACY_COLORS)
-                    && i + 1 < string.length() && (c == ChatColor.COLOR_CHAR || c == colorChar());
+                    && i + 1 < string.length() && (c == LEGACY_COLOR_CHAR || c == colorChar());
             boolean isEvent = isEnabled(Option.ADVANCED_FORMATTING)
                     && c == '[';
             boolean isFormatting = isEnabled(Option.SIMPLE_FORMATTING)
@@ -817,12 +484,31 @@ public class MineDownParser {
         LEGACY_COLORS
     }
 
+    /**
+     * Get the immutable settings of this parser. They can be shared between threads
+     * and used to parse without a parser instance.
+     * @return The current settings
+     */
+    public MineDownSettings settings() {
+        return settings;
+    }
+
+    /**
+     * Replace all settings of this parser
+     * @param settings The new settings
+     * @return The MineDownParser instance
+     */
+    public MineDownParser settings(MineDownSettings settings) {
+        this.settings = settings;
+        return this;
+    }
+
     /**
      * Get The character to use as a special color code.
      * @return The color character (Default: ampersand &amp;)
      */
     public char colorChar() {
-        return this.colorChar;
+        return settings.colorChar();
     }
 
     /**
@@ -831,16 +517,16 @@ public class MineDownParser {
      * @return The MineDownParser instance
      */
     public MineDownParser colorChar(char colorChar) {
-        this.colorChar = colorChar;
+        settings = settings.toBuilder().colorChar(colorChar).build();
         return this;
     }
 
     /**
      * Get all enabled options that will be used when parsing
-     * @return a modifiable set of options
+     * @return an unmodifiable set of options, use {@link #enable(Option)} and {@link #disable(Option)} to modify them
      */
     public Set<Option> enabledOptions() {
-        return this.enabledOptions;
+        return settings.enabledOptions();
     }
 
     /**
@@ -849,16 +535,16 @@ public class MineDownParser {
      * @return The MineDownParser instance
      */
     public MineDownParser enabledOptions(Set<Option> enabledOptions) {
-        this.enabledOptions = enabledOptions;
+        settings = settings.toBuilder().enabledOptions(enabledOptions).build();
         return this;
     }
 
     /**
      * Get all filtered options that will be parsed and then removed from the string
-     * @return a modifiable set of options
+     * @return an unmodifiable set of options, use {@link #filter(Option)} and {@link #unfilter(Option)} to modify them
      */
     public Set<Option> filteredOptions() {
-        return this.filteredOptions;
+        return settings.filteredOptions();
     }
 
     /**
@@ -868,7 +554,7 @@ public class MineDownParser {
      * @return The MineDownParser instance
      */
     public MineDownParser filteredOptions(Set<Option> filteredOptions) {
-        this.filteredOptions = filteredOptions;
+        settings = settings.toBuilder().filteredOptions(filteredOptions).build();
         return this;
     }
 
@@ -877,7 +563,7 @@ public class MineDownParser {
      * @return whether or not the accept malformed strings (Default: false)
      */
     public boolean lenient() {
-        return this.lenient;
+        return settings.lenient();
     }
 
     /**
@@ -886,7 +572,7 @@ public class MineDownParser {
      * @return The MineDownParser instance
      */
     public MineDownParser lenient(boolean lenient) {
-        this.lenient = lenient;
+        settings = settings.toBuilder().lenient(lenient).build();
         return this;
     }
 
@@ -895,7 +581,7 @@ public class MineDownParser {
      * @return whether the parser should try to detect if RGB/font support is available (Default: true)
      */
     public boolean backwardsCompatibility() {
-        return this.backwardsCompatibility;
+        return settings.backwardsCompatibility();
     }
 
     /**
@@ -904,7 +590,7 @@ public class MineDownParser {
      * @return The MineDownParser instance
      */
     public MineDownParser backwardsCompatibility(boolean backwardsCompatibility) {
-        this.backwardsCompatibility = backwardsCompatibility;
+        settings = settings.toBuilder().backwardsCompatibility(backwardsCompatibility).build();
         return this;
     }
 
@@ -913,7 +599,7 @@ public class MineDownParser {
      * @return whether or not urls are detected (Default: true)
      */
     public boolean urlDetection() {
-        return this.urlDetection;
+        return settings.urlDetection();
     }
 
     /**
@@ -922,7 +608,7 @@ public class MineDownParser {
      * @return The MineDownParser instance
      */
     public MineDownParser urlDetection(boolean urlDetection) {
-        this.urlDetection = urlDetection;
+        settings = settings.toBuilder().urlDetection(urlDetection).build();
         return this;
     }
 
@@ -930,7 +616,7 @@ public class MineDownParser {
      * Get the text to display when hovering over an URL. Has a %url% placeholder.
      */
     public String urlHoverText() {
-        return this.urlHoverText;
+        return settings.urlHoverText();
     }
 
     /**
@@ -939,7 +625,7 @@ public class MineDownParser {
      * @return The MineDownParser instance
      */
     public MineDownParser urlHoverText(String urlHoverText) {
-        this.urlHoverText = urlHoverText;
+        settings = settings.toBuilder().urlHoverText(urlHoverText).build();
         return this;
     }
 
@@ -948,7 +634,7 @@ public class MineDownParser {
      * @return whether or not to automatically add http to values of open_url when there doesn't exist any? (Default: true)
      */
     public boolean autoAddUrlPrefix() {
-        return this.autoAddUrlPrefix;
+        return settings.autoAddUrlPrefix();
     }
 
     /**
@@ -957,7 +643,7 @@ public class MineDownParser {
      * @return The MineDownParser instance
      */
     public MineDownParser autoAddUrlPrefix(boolean autoAddUrlPrefix) {
-        this.autoAddUrlPrefix = autoAddUrlPrefix;
+        settings = settings.toBuilder().autoAddUrlPrefix(autoAddUrlPrefix).build();
         return this;
     }
 
@@ -967,7 +653,7 @@ public class MineDownParser {
      * Won't apply if the text already includes new lines.
      */
     public int hoverTextWidth() {
-        return this.hoverTextWidth;
+        return settings.hoverTextWidth();
     }
 
     /**
@@ -978,7 +664,27 @@ public class MineDownParser {
      * @return The MineDownParser instance
      */
     public MineDownParser hoverTextWidth(int hoverTextWidth) {
-        this.hoverTextWidth = hoverTextWidth;
+        settings = settings.toBuilder().hoverTextWidth(hoverTextWidth).build();
+        return this;
+    }
+
+    /**
+     * Get whether or not parsed components get optimized with the {@link ComponentOptimizer}.
+     * Only applies to the components that are returned directly, not to the builders of the parse methods.
+     * @return whether or not parsed components get optimized (Default: false)
+     */
+    public boolean optimize() {
+        return settings.optimize();
+    }
+
+    /**
+     * Set whether or not parsed components get optimized with the {@link ComponentOptimizer}.
+     * Only applies to the components that are returned directly, not to the builders of the parse methods.
+     * @param optimize Whether or not to optimize parsed components (Default: false)
+     * @return The MineDownParser instance
+     */
+    public MineDownParser optimize(boolean optimize) {
+        settings = settings.toBuilder().optimize(optimize).build();
         return this;
     }
 
@@ -0,0 +1,629 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.Style;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The immutable configuration of the {@link MineDownParser}.
+ * <p>
+ * Settings are built once and can then be shared freely between threads. Every parse only
+ * creates its own small parse context, so parsing with the same settings from multiple
+ * threads at once needs no locking.
+ */
+public final class MineDownSettings {
+
+    /**
+     * The default settings
+     */
+    public static final MineDownSettings DEFAULT = builder().build();
+
+    private final char colorChar;
+    private final Set<MineDownParser.Option> enabledOptions;
+    private final Set<MineDownParser.Option> filteredOptions;
+    private final boolean lenient;
+    private final boolean backwardsCompatibility;
+    private final boolean urlDetection;
+    private final String urlHoverText;
+    private final boolean autoAddUrlPrefix;
+    private final int hoverTextWidth;
+    private final boolean optimize;
+
+    /**
+     * The hash of all settings, used as a fingerprint when caching parsed messages
+     */
+    private final int hash;
+
+    /**
+     * These settings without url detection, used for parsing the text of events and hovers.
+     * Volatile as it gets built lazily by whatever thread needs it first.
+     */
+    private volatile MineDownSettings withoutUrlDetection;
+
+    /**
+     * The compiled {@link #urlHoverText}, only compiled once it is needed
+     */
+    private volatile MineDownTemplate urlHoverTemplate;
+
+    private MineDownSettings(Builder builder) {
+        this.colorChar = builder.colorChar;
+        this.enabledOptions = Collections.unmodifiableSet(EnumSet.copyOf(builder.enabledOptions));
+        this.filteredOptions = Collections.unmodifiableSet(EnumSet.copyOf(builder.filteredOptions));
+        this.lenient = builder.lenient;
+        this.backwardsCompatibility = builder.backwardsCompatibility;
+        this.urlDetection = builder.urlDetection;
+        this.urlHoverText = builder.urlHoverText;
+        this.autoAddUrlPrefix = builder.autoAddUrlPrefix;
+        this.hoverTextWidth = builder.hoverTextWidth;
+        this.optimize = builder.optimize;
+        this.hash = Objects.hash(colorChar, enabledOptions, filteredOptions, lenient, backwardsCompatibility,
+                urlDetection, urlHoverText, autoAddUrlPrefix, hoverTextWidth, optimize);
+        if (!urlDetection) {
+            withoutUrlDetection = this;
+        }
+    }
+
+    /**
+     * Create a new builder with the default settings
+     * @return The new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Create a new builder with all settings copied from these settings
+     * @return The new builder
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * Parse a {@link MineDown} message with these settings
+     * @param message The message to parse
+     * @return The parsed component
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    public Component parse(CharSequence message) throws IllegalArgumentException {
+        return parse(message, 0, message.length());
+    }
+
+    /**
+     * Parse a region of a {@link MineDown} message with these settings
+     * @param message The message to parse
+     * @param start   The index in the message to start parsing at (inclusive)
+     * @param end     The index in the message to stop parsing at (exclusive)
+     * @return The parsed component
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     * @throws IndexOutOfBoundsException Thrown when the region is not inside of the message
+     */
+    public Component parse(CharSequence message, int start, int end) throws IllegalArgumentException {
+        if (PlainText.isPlain(this, message, start, end, true)) {
+            if (start == end) {
+                return Component.empty();
+            }
+            Component text = Component.text(message.subSequence(start, end).toString());
+            // The parser puts the text into an empty root component, only the optimizer removes that
+            return optimize ? text : TextComponent.builder().append(text).build();
+        }
+        return optimize(new ParseContext(this).parse(message, start, end).build());
+    }
+
+    /**
+     * Parse a {@link MineDown} message with these settings directly to Minecraft's json chat format
+     * without creating components for it
+     * @param message The message to parse
+     * @return The json string
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    public String toJson(CharSequence message) throws IllegalArgumentException {
+        StringBuilder json = new StringBuilder(message.length() * 2);
+        try {
+            writeJson(message, json);
+        } catch (IOException e) {
+            // A StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Parse a {@link MineDown} message with these settings directly to Minecraft's json chat format
+     * without creating components for it
+     * @param message The message to parse
+     * @param out     The output to write the json to
+     * @throws IOException Thrown when the output throws an exception
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    public void writeJson(CharSequence message, Appendable out) throws IOException, IllegalArgumentException {
+        JsonWriter json = new JsonWriter(out);
+        try {
+            write(message, json);
+            json.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Parse a {@link MineDown} message with these settings directly to Minecraft's json chat format
+     * encoded as UTF-8 without creating components for it
+     * @param message The message to parse
+     * @param out     The buffer to write the json to, starting at its current position
+     * @throws java.nio.BufferOverflowException Thrown when there is not enough space left in the buffer
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    public void writeJson(CharSequence message, ByteBuffer out) throws IllegalArgumentException {
+        JsonWriter json = new JsonWriter(new JsonWriter.ByteBufferAppendable(out));
+        write(message, json);
+        json.finish();
+    }
+
+    /**
+     * Parse a {@link MineDown} message with these settings directly to a legacy string with <tt>&sect;</tt> codes
+     * @param message The message to parse
+     * @return The legacy string
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     * @see #renderLegacy(CharSequence, StringBuilder)
+     */
+    public String toLegacy(CharSequence message) throws IllegalArgumentException {
+        StringBuilder legacy = new StringBuilder(message.length() + 16);
+        renderLegacy(message, legacy);
+        return legacy.toString();
+    }
+
+    /**
+     * Parse a {@link MineDown} message with these settings directly to a legacy string with <tt>&sect;</tt> codes.
+     * Hex colors are replaced with the nearest legacy color, fonts and events are left out.
+     * @param message The message to parse
+     * @param out     The builder to append the legacy string to, can be reused for multiple messages
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    public void renderLegacy(CharSequence message, StringBuilder out) throws IllegalArgumentException {
+        // Urls only add events which legacy strings don't have
+        if (PlainText.isPlain(this, message, 0, message.length(), false)) {
+            out.append(message);
+            return;
+        }
+        new ParseContext(this).writer(new LegacyWriter(out, MineDownParser.LEGACY_COLOR_CHAR)).parse(message, 0, message.length());
+    }
+
+    /**
+     * Parse a {@link MineDown} message with these settings directly to a json writer
+     * @param message The message to parse
+     * @param writer  The writer to write the styled text to
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    private void write(CharSequence message, JsonWriter writer) throws IllegalArgumentException {
+        if (PlainText.isPlain(this, message, 0, message.length(), writer.events())) {
+            writer.text(message, Style.empty());
+        } else {
+            new ParseContext(this).writer(writer).parse(message, 0, message.length());
+        }
+    }
+
+    /**
+     * Parse a {@link MineDown} message with these settings and collect all problems instead of throwing them
+     * @param message The message to parse
+     * @return The result with the parsed component and the problems found in the message
+     */
+    public ParseResult parseWithDiagnostics(CharSequence message) {
+        return parseWithDiagnostics(message, 0, message.length());
+    }
+
+    /**
+     * Parse a region of a {@link MineDown} message with these settings and collect all problems instead of throwing them
+     * @param message The message to parse
+     * @param start   The index in the message to start parsing at (inclusive)
+     * @param end     The index in the message to stop parsing at (exclusive)
+     * @return The result with the parsed component and the problems found in the message
+     * @throws IndexOutOfBoundsException Thrown when the region is not inside of the message
+     */
+    public ParseResult parseWithDiagnostics(CharSequence message, int start, int end) {
+        List<ParseResult.Problem> problems = new ArrayList<>();
+        Component component = optimize(new ParseContext(this).problems(problems).parse(message, start, end).build());
+        return new ParseResult(component, problems);
+    }
+
+    /**
+     * Optimize a parsed component if optimization is enabled in these settings
+     * @param component The parsed component
+     * @return The optimized component or the same one if optimization is disabled
+     */
+    Component optimize(Component component) {
+        return optimize ? ComponentOptimizer.optimize(component) : component;
+    }
+
+    /**
+     * Get these settings with url detection disabled
+     * @return The settings without url detection
+     */
+    MineDownSettings withoutUrlDetection() {
+        MineDownSettings settings = withoutUrlDetection;
+        if (settings == null) {
+            // Two threads might build equal settings at the same time, either of them can be used
+            settings = toBuilder().urlDetection(false).build();
+            withoutUrlDetection = settings;
+        }
+        return settings;
+    }
+
+    /**
+     * Get the compiled hover text of detected urls
+     * @return The template with the <tt>%url%</tt> placeholder or <tt>null</tt> if there is no hover text
+     */
+    MineDownTemplate urlHoverTemplate() {
+        MineDownTemplate template = urlHoverTemplate;
+        if (template == null && urlHoverText != null && !urlHoverText.isEmpty()) {
+            template = new MineDown(urlHoverText).compile();
+            urlHoverTemplate = template;
+        }
+        return template;
+    }
+
+    /**
+     * Get The character to use as a special color code.
+     * @return The color character (Default: ampersand &amp;)
+     */
+    public char colorChar() {
+        return colorChar;
+    }
+
+    /**
+     * Get all enabled options that will be used when parsing
+     * @return an unmodifiable set of options
+     */
+    public Set<MineDownParser.Option> enabledOptions() {
+        return enabledOptions;
+    }
+
+    /**
+     * Get all filtered options that will be parsed and then removed from the string
+     * @return an unmodifiable set of options
+     */
+    public Set<MineDownParser.Option> filteredOptions() {
+        return filteredOptions;
+    }
+
+    /**
+     * Check whether or not an option is enabled
+     * @param option The option to check for
+     * @return <tt>true</tt> if it's enabled; <tt>false</tt> if not
+     */
+    public boolean isEnabled(MineDownParser.Option option) {
+        return enabledOptions.contains(option);
+    }
+
+    /**
+     * Check whether or not an option is filtered
+     * @param option The option to check for
+     * @return <tt>true</tt> if it's filtered; <tt>false</tt> if not
+     */
+    public boolean isFiltered(MineDownParser.Option option) {
+        return filteredOptions.contains(option);
+    }
+
+    /**
+     * Get whether to accept malformed strings or not
+     * @return whether or not the accept malformed strings (Default: false)
+     */
+    public boolean lenient() {
+        return lenient;
+    }
+
+    /**
+     * Get whether the parser should try to detect if RGB/font support is available
+     * @return whether the parser should try to detect if RGB/font support is available (Default: true)
+     */
+    public boolean backwardsCompatibility() {
+        return backwardsCompatibility;
+    }
+
+    /**
+     * Get whether or not urls in strings are detected and get events added to them?
+     * @return whether or not urls are detected (Default: true)
+     */
+    public boolean urlDetection() {
+        return urlDetection;
+    }
+
+    /**
+     * Get the text to display when hovering over an URL. Has a %url% placeholder.
+     * @return The url hover text
+     */
+    public String urlHoverText() {
+        return urlHoverText;
+    }
+
+    /**
+     * Get whether or not to automatically add http to values of open_url when there doesn't exist any?
+     * @return whether or not to automatically add http to values of open_url when there doesn't exist any? (Default: true)
+     */
+    public boolean autoAddUrlPrefix() {
+        return autoAddUrlPrefix;
+    }
+
+    /**
+     * Get the max width the hover text should have.
+     * Minecraft itself will wrap after 60 characters.
+     * Won't apply if the text already includes new lines.
+     * @return The hover text width
+     */
+    public int hoverTextWidth() {
+        return hoverTextWidth;
+    }
+
+    /**
+     * Get whether or not parsed components get optimized with the {@link ComponentOptimizer}
+     * @return whether or not parsed components get optimized (Default: false)
+     */
+    public boolean optimize() {
+        return optimize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MineDownSettings that = (MineDownSettings) o;
+        return hash == that.hash
+                && colorChar == that.colorChar
+                && lenient == that.lenient
+                && backwardsCompatibility == that.backwardsCompatibility
+                && urlDetection == that.urlDetection
+                && autoAddUrlPrefix == that.autoAddUrlPrefix
+                && hoverTextWidth == that.hoverTextWidth
+                && optimize == that.optimize
+                && enabledOptions.equals(that.enabledOptions)
+                && filteredOptions.equals(that.filteredOptions)
+                && Objects.equals(urlHoverText, that.urlHoverText);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "MineDownSettings{" +
+                "colorChar=" + colorChar +
+                ", enabledOptions=" + enabledOptions +
+                ", filteredOptions=" + filteredOptions +
+                ", lenient=" + lenient +
+                ", backwardsCompatibility=" + backwardsCompatibility +
+                ", urlDetection=" + urlDetection +
+                ", urlHoverText='" + urlHoverText + '\'' +
+                ", autoAddUrlPrefix=" + autoAddUrlPrefix +
+                ", hoverTextWidth=" + hoverTextWidth +
+                ", optimize=" + optimize +
+                '}';
+    }
+
+    public static final class Builder {
+        private char colorChar = '&';
+        private Set<MineDownParser.Option> enabledOptions = EnumSet.of(
+                MineDownParser.Option.LEGACY_COLORS,
+                MineDownParser.Option.SIMPLE_FORMATTING,
+                MineDownParser.Option.ADVANCED_FORMATTING
+        );
+        private Set<MineDownParser.Option> filteredOptions = EnumSet.noneOf(MineDownParser.Option.class);
+        private boolean lenient = false;
+        private boolean backwardsCompatibility = true;
+        private boolean urlDetection = true;
+        private String urlHoverText = "Click to open url";
+        private boolean autoAddUrlPrefix = true;
+        private int hoverTextWidth = 60;
+        private boolean optimize = false;
+
+        private Builder() {}
+
+        private Builder(MineDownSettings settings) {
+            colorChar = settings.colorChar;
+            enabledOptions(settings.enabledOptions);
+            filteredOptions(settings.filteredOptions);
+            lenient = settings.lenient;
+            backwardsCompatibility = settings.backwardsCompatibility;
+            urlDetection = settings.urlDetection;
+            urlHoverText = settings.urlHoverText;
+            autoAddUrlPrefix = settings.autoAddUrlPrefix;
+            hoverTextWidth = settings.hoverTextWidth;
+            optimize = settings.optimize;
+        }
+
+        /**
+         * Set the character to use as a special color code.
+         * @param colorChar The color char (Default: ampersand &amp;)
+         * @return The builder instance
+         */
+        public Builder colorChar(char colorChar) {
+            this.colorChar = colorChar;
+            return this;
+        }
+
+        /**
+         * Enable an option.
+         * @param option The option to enable
+         * @return The builder instance
+         */
+        public Builder enable(MineDownParser.Option option) {
+            enabledOptions.add(option);
+            return this;
+        }
+
+        /**
+         * Disable an option. Disabling an option will stop the parser from replacing
+         * this option's chars in the string. Use {@link #filter(MineDownParser.Option)} to completely
+         * remove the characters used by this option from the message instead.
+         * @param option The option to disable
+         * @return The builder instance
+         */
+        public Builder disable(MineDownParser.Option option) {
+            enabledOptions.remove(option);
+            return this;
+        }
+
+        /**
+         * Filter an option. This enables the parsing of an option and completely
+         * removes the characters of this option from the string.
+         * @param option The option to add to the filter
+         * @return The builder instance
+         */
+        public Builder filter(MineDownParser.Option option) {
+            filteredOptions.add(option);
+            enabledOptions.add(option);
+            return this;
+        }
+
+        /**
+         * Unfilter an option. Does not enable it!
+         * @param option The option to remove from the filter
+         * @return The builder instance
+         */
+        public Builder unfilter(MineDownParser.Option option) {
+            filteredOptions.remove(option);
+            return this;
+        }
+
+        /**
+         * Set all enabled options that will be used when parsing at once, replaces any existing options
+         * @param enabledOptions The enabled options
+         * @return The builder instance
+         */
+        public Builder enabledOptions(Set<MineDownParser.Option> enabledOptions) {
+            this.enabledOptions = enabledOptions.isEmpty()
+                    ? EnumSet.noneOf(MineDownParser.Option.class) : EnumSet.copyOf(enabledOptions);
+            return this;
+        }
+
+        /**
+         * Set all filtered options that will be parsed and then removed from the string at once,
+         * replaces any existing options
+         * @param filteredOptions The filtered options
+         * @return The builder instance
+         */
+        public Builder filteredOptions(Set<MineDownParser.Option> filteredOptions) {
+            this.filteredOptions = filteredOptions.isEmpty()
+                    ? EnumSet.noneOf(MineDownParser.Option.class) : EnumSet.copyOf(filteredOptions);
+            return this;
+        }
+
+        /**
+         * Set whether to accept malformed strings or not
+         * @param lenient Set whether or not to accept malformed string (Default: false)
+         * @return The builder instance
+         */
+        public Builder lenient(boolean lenient) {
+            this.lenient = lenient;
+            return this;
+        }
+
+        /**
+         * Set whether the parser should try to detect if RGB/font support is available
+         * @param backwardsCompatibility Set whether the parser should try to detect if RGB/font support is available (Default: true)
+         * @return The builder instance
+         */
+        public Builder backwardsCompatibility(boolean backwardsCompatibility) {
+            this.backwardsCompatibility = backwardsCompatibility;
+            return this;
+        }
+
+        /**
+         * Set whether or not to detect urls in strings and add events to them?
+         * @param urlDetection Whether or not to detect urls in strings  (Default: true)
+         * @return The builder instance
+         */
+        public Builder urlDetection(boolean urlDetection) {
+            this.urlDetection = urlDetection;
+            return this;
+        }
+
+        /**
+         * Set the text to display when hovering over an URL. Has a %url% placeholder.
+         * @param urlHoverText The url hover text
+         * @return The builder instance
+         */
+        public Builder urlHoverText(String urlHoverText) {
+            this.urlHoverText = urlHoverText;
+            return this;
+        }
+
+        /**
+         * Set whether or not to automatically add http to values of open_url when there doesn't exist any?
+         * @param autoAddUrlPrefix Whether or not automatically add http to values of open_url when there doesn't exist any? (Default: true)
+         * @return The builder instance
+         */
+        public Builder autoAddUrlPrefix(boolean autoAddUrlPrefix) {
+            this.autoAddUrlPrefix = autoAddUrlPrefix;
+            return this;
+        }
+
+        /**
+         * Set the max width the hover text should have.
+         * Minecraft itself will wrap after 60 characters.
+         * Won't apply if the text already includes new lines.
+         * @param hoverTextWidth The url hover text length
+         * @return The builder instance
+         */
+        public Builder hoverTextWidth(int hoverTextWidth) {
+            this.hoverTextWidth = hoverTextWidth;
+            return this;
+        }
+
+        /**
+         * Set whether or not parsed components get optimized. Optimized components look the same
+         * but adjacent text with the same style is merged and shared styles are moved to a parent component.
+         * @param optimize Whether or not to optimize parsed components (Default: false)
+         * @return The builder instance
+         */
+        public Builder optimize(boolean optimize) {
+            this.optimize = optimize;
+            return this;
+        }
+
+        /**
+         * Create the immutable settings
+         * @return The settings
+         */
+        public MineDownSettings build() {
+            return new MineDownSettings(this);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.function.Consumer;
+
+/**
+ * Parses a {@link MineDown} document that is read in chunks, e.g. from a file.
+ * <p>
+ * The text is split at line breaks that are not inside of an open event or simple formatting.
+ * Every such segment is parsed on its own and handed to the consumer as soon as it is complete.
+ * Colors and legacy formatting carry over to the next segment like in a single message.
+ * Only the text since the last complete segment is kept in memory, so memory usage is bounded by the
+ * largest open construct instead of the document's size.
+ * <p>
+ * Constructs that are still open after {@link #maxPendingLength()} characters are not waited for anymore,
+ * the text gets parsed as if they were never closed. A stream parser is not thread safe.
+ */
+public final class MineDownStreamParser {
+
+    private final MineDownSettings settings;
+    private final Consumer<Component> consumer;
+    private ParseContext context;
+    private int maxPendingLength = 65536;
+
+    /**
+     * The text that wasn't handed to the consumer yet
+     */
+    private final StringBuilder pending = new StringBuilder();
+
+    /**
+     * Finds the ends of the segments in the pending text
+     */
+    private final SegmentScanner scanner;
+
+    /**
+     * Create a new stream parser
+     * @param settings  The settings to parse with
+     * @param consumer  The consumer of the parsed segments
+     */
+    public MineDownStreamParser(MineDownSettings settings, Consumer<Component> consumer) {
+        this.settings = settings;
+        this.context = new ParseContext(settings);
+        this.consumer = consumer;
+        this.scanner = new SegmentScanner(settings, pending, false);
+    }
+
+    /**
+     * Read and parse everything from a reader and {@link #finish()} afterwards. The reader is not closed.
+     * @param reader    The reader to read from
+     * @throws IOException Thrown when reading fails
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    public void parse(Reader reader) throws IOException, IllegalArgumentException {
+        char[] buffer = new char[8192];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            feed(buffer, 0, read);
+        }
+        finish();
+    }
+
+    /**
+     * Read and parse everything from a channel and {@link #finish()} afterwards. The channel is not closed.
+     * @param channel   The channel to read from
+     * @param charset   The charset of the text in the channel
+     * @throws IOException Thrown when reading fails
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    public void parse(ReadableByteChannel channel, Charset charset) throws IOException, IllegalArgumentException {
+        parse(Channels.newReader(channel, charset.newDecoder(), -1));
+    }
+
+    /**
+     * Add the next chunk of text, all complete segments get parsed and handed to the consumer
+     * @param chunk The chunk of text
+     * @return This parser
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    public MineDownStreamParser feed(CharSequence chunk) throws IllegalArgumentException {
+        pending.append(chunk);
+        process();
+        return this;
+    }
+
+    /**
+     * Add the next chunk of text, all complete segments get parsed and handed to the consumer
+     * @param chunk     The array containing the chunk
+     * @param offset    The start of the chunk in the array
+     * @param length    The length of the chunk
+     * @return This parser
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    public MineDownStreamParser feed(char[] chunk, int offset, int length) throws IllegalArgumentException {
+        pending.append(chunk, offset, length);
+        process();
+        return this;
+    }
+
+    /**
+     * Parse all remaining text and hand it to the consumer. Constructs that are still open are not closed anymore.
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    public void finish() throws IllegalArgumentException {
+        emit(pending.length());
+    }
+
+    /**
+     * Get the amount of characters an open construct may span before it is parsed without waiting for it to close
+     * @return The maximum amount of pending characters (Default: 65536)
+     */
+    public int maxPendingLength() {
+        return maxPendingLength;
+    }
+
+    /**
+     * Set the amount of characters an open construct may span before it is parsed without waiting for it to close
+     * @param maxPendingLength The maximum amount of pending characters
+     * @return This parser
+     */
+    public MineDownStreamParser maxPendingLength(int maxPendingLength) {
+        Util.validate(maxPendingLength > 0, "Maximum pending length has to be positive!");
+        this.maxPendingLength = maxPendingLength;
+        return this;
+    }
+
+    private void process() {
+        int safeEnd = -1;
+        int next;
+        while ((next = scanner.next(pending.length(), false)) != -1) {
+            safeEnd = next;
+        }
+        if (safeEnd != -1) {
+            // The rest is the start of a construct or an incomplete line, it gets scanned again with the next text
+            emit(safeEnd);
+        }
+        if (pending.length() > maxPendingLength) {
+            int lastLine = pending.lastIndexOf("\n");
+            emit(lastLine != -1 ? lastLine + 1 : pending.length());
+        }
+    }
+
+    /**
+     * Parse the text up to an index, hand it to the consumer and reset the scanner
+     * @param end The end of the text to parse (exclusive)
+     */
+    private void emit(int end) {
+        if (end > 0) {
+            Component component = settings.optimize(context.builder(TextComponent.builder()).parse(pending, 0, end).build());
+            context = context.continuation();
+            pending.delete(0, end);
+            consumer.accept(component);
+        }
+        scanner.reset(0);
+    }
+}
@@ -23,14 +23,17 @@ package de.themoep.minedown;
  */
 
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
 import net.kyori.adventure.text.format.TextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 public class MineDownStringifier {
@@ -70,198 +73,301 @@ public class MineDownStringifier {
     public static final String FORMAT_PREFIX = "format=";
     public static final String HOVER_PREFIX = "hover=";
 
-    private StringBuilder value = new StringBuilder();
-
     private TextColor color = null;
-    private ClickEvent clickEvent = null;
-    private HoverEvent hoverEvent = null;
     private Set<TextDecoration> formats = new LinkedHashSet<>();
 
     /**
      * Create a {@link MineDown} string from a component message
-     * @param components The components to generate a MineDown string from
+     * @param component The component to generate a MineDown string from
      * @return The MineDown string
      */
     public String stringify(Component component) {
         StringBuilder sb = new StringBuilder();
-        for (BaseComponent component : components) {
-            if (!component.hasFormatting()) {
-                appendText(sb, component);
-                continue;
-            }
-            if (component.getClickEvent() != null || component.getHoverEvent() != null) {
-                sb.append('[');
-                if (!formattingInEventDefinition()) {
-                    appendFormat(sb, component);
-                }
-                if (!colorInEventDefinition()) {
-                    appendColor(sb, component.getColor());
+        stringify(sb, component);
+        return sb.toString();
+    }
+
+    /**
+     * Create {@link MineDown} strings from many components at once. The components are split between the threads
+     * of the {@link ForkJoinPool#commonPool() common pool}, each one is stringified with a copy of this stringifier.
+     * @param components The components to generate MineDown strings from
+     * @return The results in the same order as the components, failed components contain their error
+     */
+    public List<BatchResult<String>> stringifyAll(Collection<? extends Component> components) {
+        return stringifyAll(components, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create {@link MineDown} strings from many components at once. The components are split between the threads
+     * of the executor, each one is stringified with a copy of this stringifier.
+     * @param components The components to generate MineDown strings from
+     * @param executor   The executor to run on
+     * @return The results in the same order as the components, failed components contain their error
+     */
+    public List<BatchResult<String>> stringifyAll(Collection<? extends Component> components, Executor executor) {
+        MineDownStringifier configuration = copy();
+        return Batch.run(components, component -> configuration.copy().stringify(component), executor);
+    }
+
+    private void stringify(StringBuilder sb, Component component) {
+        appendRuns(sb, Collections.singletonList(component));
+    }
+
+    /**
+     * Append a list of sibling components. Adjacent components with the same events
+     * are merged into a single event definition.
+     * @param sb            The builder to append to
+     * @param components    The components
+     */
+    private void appendRuns(StringBuilder sb, List<Component> components) {
+        int i = 0;
+        while (i < components.size()) {
+            Component component = components.get(i);
+            int end = i + 1;
+            if (hasEvent(component)) {
+                while (end < components.size() && sameEvent(component, components.get(end))) {
+                    end++;
                 }
-            } else if (component.getColorRaw() != null) {
-                appendFormat(sb, component);
-                appendColor(sb, component.getColor());
+                appendEvent(sb, components.subList(i, end));
             } else {
-                appendFormat(sb, component);
+                appendStyled(sb, component, true, true);
             }
+            i = end;
+        }
+    }
+
+    private void appendChildren(StringBuilder sb, Component component) {
+        if (!component.children().isEmpty()) {
+            copy().appendRuns(sb, component.children());
+        }
+    }
 
+    /**
+     * Append a component's text and children with its formatting but without its events
+     * @param sb        The builder to append to
+     * @param component The component
+     * @param format    Whether or not to add the formatting
+     * @param color     Whether or not to add the color
+     */
+    private void appendStyled(StringBuilder sb, Component component, boolean format, boolean color) {
+        if (!component.hasStyling()) {
             appendText(sb, component);
+            appendChildren(sb, component);
+            return;
+        }
+        if (format) {
+            appendFormat(sb, component);
+        }
+        if (color && component.style().color() != null) {
+            appendColor(sb, component.style().color());
+        }
+        appendText(sb, component);
+        appendChildren(sb, component);
+        if (format) {
+            appendFormatSuffix(sb, component);
+        }
+    }
 
-            if (component.getExtra() != null && !component.getExtra().isEmpty()) {
-                sb.append(copy().stringify(component.getExtra().toArray(new BaseComponent[0])));
-            }
+    /**
+     * Append adjacent components that share the same events as a single event definition
+     * @param sb    The builder to append to
+     * @param run   The components with the same events
+     */
+    private void appendEvent(StringBuilder sb, List<Component> run) {
+        Style style = run.get(0).style();
+        boolean colorInDefinition = colorInEventDefinition() && style.color() != null;
+        for (Component component : run) {
+            colorInDefinition &= Objects.equals(style.color(), component.style().color());
+        }
+        // The formatting can only be in the definition if there is a single component to take it from
+        boolean formatInDefinition = formattingInEventDefinition() && run.size() == 1;
 
-            if (component.getClickEvent() != clickEvent || component.getHoverEvent() != hoverEvent) {
-                clickEvent = component.getClickEvent();
-                hoverEvent = component.getHoverEvent();
-                if (!formattingInEventDefinition()) {
-                    appendFormatSuffix(sb, component);
-                }
-                sb.append("](");
-                List<String> definitions = new ArrayList<>();
-                if (colorInEventDefinition()) {
-                    StringBuilder sbi = new StringBuilder();
-                    if (!preferSimpleEvents()) {
-                        sbi.append(COLOR_PREFIX);
-                    }
-                    sbi.append(component.getColor().getName().toLowerCase());
-                    definitions.add(sbi.toString());
-                }
-                if (formattingInEventDefinition()) {
-                    StringBuilder sbi = new StringBuilder();
-                    if (!preferSimpleEvents) {
-                        sbi.append(FORMAT_PREFIX);
-                    }
-                    sbi.append(Util.getFormats(component, true).stream().map(c -> c.getName().toLowerCase()).collect(Collectors.joining(" ")));
-                    definitions.add(sbi.toString());
-                }
-                if (HAS_FONT_SUPPORT && component.getFontRaw() != null) {
-                    definitions.add(FONT_PREFIX + component.getFontRaw());
-                }
-                if (component.getClickEvent() != null) {
-                    if (preferSimpleEvents() && component.getClickEvent().getAction() == ClickEvent.Action.OPEN_URL) {
-                        definitions.add(component.getClickEvent().getValue());
-                    } else {
-                        definitions.add(component.getClickEvent().getAction().toString().toLowerCase() + "=" + component.getClickEvent().getValue());
-                    }
-                }
-                if (component.getHoverEvent() != null) {
-                    StringBuilder sbi = new StringBuilder();
-                    if (preferSimpleEvents() && component.getHoverEvent().getAction() == HoverEvent.Action.SHOW_TEXT &&
-                            (component.getClickEvent() == null || component.getClickEvent().getAction() != ClickEvent.Action.OPEN_URL)) {
-                        sbi.append(HOVER_PREFIX);
-                    } else {
-                        sbi.append(component.getHoverEvent().getAction().toString().toLowerCase()).append('=');
-                    }
-                    if (HAS_HOVER_CONTENT_SUPPORT) {
-                        sbi.append(copy().stringify(component.getHoverEvent().getContents()));
-                    } else if (HOVER_GET_VALUE != null) {
-                        try {
-                            sbi.append(copy().stringify((BaseComponent[]) HOVER_GET_VALUE.invoke(component.getHoverEvent())));
-                        } catch (IllegalAccessException | InvocationTargetException e) {
-                            e.printStackTrace();
-                        }
-                    }
-                    definitions.add(sbi.toString());
+        sb.append('[');
+        for (Component component : run) {
+            appendStyled(sb, component, !formatInDefinition, !colorInDefinition);
+        }
+        sb.append("](");
+        List<String> definitions = new ArrayList<>();
+        if (colorInDefinition) {
+            StringBuilder sbi = new StringBuilder();
+            if (!preferSimpleEvents()) {
+                sbi.append(COLOR_PREFIX);
+            }
+            sbi.append(colorName(style.color()));
+            definitions.add(sbi.toString());
+        }
+        if (formatInDefinition) {
+            Set<TextDecoration> formats = getFormats(run.get(0));
+            if (!formats.isEmpty()) {
+                if (preferSimpleEvents()) {
+                    definitions.add(formats.stream().map(this::formatName).collect(Collectors.joining(" ")));
+                } else {
+                    definitions.add(FORMAT_PREFIX + formats.stream().map(this::formatName).collect(Collectors.joining(",")));
                 }
-                sb.append(definitions.stream().collect(Collectors.joining(" ")));
-                sb.append(')');
+            }
+        }
+        if (style.font() != null) {
+            definitions.add(FONT_PREFIX + style.font().asString());
+        }
+        ClickEvent clickEvent = style.clickEvent();
+        if (clickEvent != null) {
+            if (preferSimpleEvents() && clickEvent.action() == ClickEvent.Action.OPEN_URL) {
+                definitions.add(clickEvent.value());
             } else {
-                appendFormatSuffix(sb, component);
+                definitions.add(clickEvent.action().toString().toLowerCase(Locale.ROOT) + "=" + clickEvent.value());
             }
         }
-        return sb.toString();
+        HoverEvent<?> hoverEvent = style.hoverEvent();
+        if (hoverEvent != null) {
+            StringBuilder sbi = new StringBuilder();
+            if (preferSimpleEvents() && hoverEvent.action() == HoverEvent.Action.SHOW_TEXT &&
+                    (clickEvent == null || clickEvent.action() != ClickEvent.Action.OPEN_URL)) {
+                sbi.append(HOVER_PREFIX);
+            } else {
+                sbi.append(HoverEvent.Action.NAMES.key(hoverEvent.action())).append('=');
+            }
+            appendHoverValue(sbi, hoverEvent);
+            definitions.add(sbi.toString());
+        }
+        sb.append(String.join(" ", definitions));
+        sb.append(')');
     }
 
-    private StringBuilder stringify(List<Content> contents) {
-        StringBuilder sb = new StringBuilder();
-        for (Content content : contents) {
-            if (content instanceof Text) {
-                Object value = ((Text) content).getValue();
-                if (value instanceof BaseComponent[]) {
-                    sb.append(stringify((BaseComponent[]) value));
-                } else {
-                    sb.append(value);
-                }
-            } else if (content instanceof Entity) {
-                Entity contentEntity = (Entity) content;
-                sb.append(contentEntity.getId());
-                if (contentEntity.getType() != null) {
-                    sb.append(":").append(contentEntity.getType());
-                }
-                if (contentEntity.getName() != null) {
-                    sb.append(" ").append(stringify(contentEntity.getName()));
-                }
-            } else if (content instanceof Item) {
-                Item contentItem = (Item) content;
-                sb.append(contentItem.getId());
-                if (contentItem.getCount() > 0) {
-                    sb.append("*").append(contentItem.getCount());
-                }
-                if (contentItem.getTag() != null) {
-                    sb.append(" ").append(contentItem.getTag().getNbt());
-                }
+    private static boolean hasEvent(Component component) {
+        return component.style().clickEvent() != null || component.style().hoverEvent() != null;
+    }
+
+    /**
+     * Check whether or not a component can be part of the same event definition as another one
+     * @param first     The first component of the event definition
+     * @param component The component to check
+     * @return          Whether or not both have the same events and font
+     */
+    private static boolean sameEvent(Component first, Component component) {
+        return Objects.equals(first.style().clickEvent(), component.style().clickEvent())
+                && Objects.equals(first.style().hoverEvent(), component.style().hoverEvent())
+                && Objects.equals(first.style().font(), component.style().font());
+    }
+
+    private void appendHoverValue(StringBuilder sb, HoverEvent<?> hoverEvent) {
+        Object value = hoverEvent.value();
+        if (value instanceof Component) {
+            sb.append(copy().stringify((Component) value));
+        } else if (value instanceof HoverEvent.ShowEntity) {
+            HoverEvent.ShowEntity entity = (HoverEvent.ShowEntity) value;
+            sb.append(entity.id()).append(':').append(entity.type().asString());
+            if (entity.name() != null) {
+                sb.append(' ').append(copy().stringify(entity.name()));
+            }
+        } else if (value instanceof HoverEvent.ShowItem) {
+            HoverEvent.ShowItem item = (HoverEvent.ShowItem) value;
+            sb.append(item.item().asString());
+            if (item.count() > 1) {
+                sb.append('*').append(item.count());
+            }
+            if (item.nbt() != null) {
+                sb.append(' ').append(item.nbt().string());
             }
         }
-        return sb;
     }
 
-    private void appendText(StringBuilder sb, BaseComponent component) {
+    private void appendText(StringBuilder sb, Component component) {
         if (component instanceof TextComponent) {
-            sb.append(((TextComponent) component).getText());
+            sb.append(((TextComponent) component).content());
         } else {
             throw new UnsupportedOperationException("Cannot stringify " + component.getClass().getTypeName() + " yet! Only TextComponents are supported right now. Sorry. :(");
         }
     }
 
-    private void appendColor(StringBuilder sb, ChatColor color) {
+    private void appendColor(StringBuilder sb, TextColor color) {
         if (this.color != color) {
             this.color = color;
-            if (useLegacyColors()) {
-                sb.append(colorChar()).append(color.toString().substring(1));
+            char legacyCode = useLegacyColors() ? legacyCode(color) : 0;
+            if (legacyCode != 0) {
+                sb.append(colorChar()).append(legacyCode);
             } else {
-                sb.append(colorChar()).append(color.getName()).append(colorChar());
+                sb.append(colorChar()).append(colorName(color)).append(colorChar());
             }
         }
     }
 
-    private void appendFormat(StringBuilder sb, BaseComponent component) {
-        Set<ChatColor> formats = Util.getFormats(component, true);
+    private void appendFormat(StringBuilder sb, Component component) {
+        Set<TextDecoration> formats = getFormats(component);
         if (!formats.containsAll(this.formats)) {
             if (useLegacyFormatting()) {
-                sb.append(colorChar()).append(ChatColor.RESET.toString().charAt(1));
+                sb.append(colorChar()).append('r');
             } else {
-                Deque<ChatColor> formatDeque = new ArrayDeque<>(this.formats);
+                Deque<TextDecoration> formatDeque = new ArrayDeque<>(this.formats);
                 while (!formatDeque.isEmpty()) {
-                    ChatColor format = formatDeque.pollLast();
+                    TextDecoration format = formatDeque.pollLast();
                     if (!formats.contains(format)) {
-                        sb.append(MineDown.getFormatString(format));
+                        sb.append(MineDown.getDecorationString(format));
                     }
                 }
             }
         } else {
             formats.removeAll(this.formats);
         }
-        for (ChatColor format : formats) {
+        for (TextDecoration format : formats) {
             if (useLegacyFormatting()) {
-                sb.append(colorChar()).append(format.toString().charAt(1));
+                sb.append(colorChar()).append(legacyCode(format));
             } else {
-                sb.append(MineDown.getFormatString(format));
+                sb.append(MineDown.getDecorationString(format));
             }
         }
         this.formats.clear();
         this.formats.addAll(formats);
     }
 
-    private void appendFormatSuffix(StringBuilder sb, BaseComponent component) {
+    private void appendFormatSuffix(StringBuilder sb, Component component) {
         if (!useLegacyFormatting()) {
-            Set<ChatColor> formats = Util.getFormats(component, true);
-            for (ChatColor format : formats) {
-                sb.append(MineDown.getFormatString(format));
+            Set<TextDecoration> formats = getFormats(component);
+            for (TextDecoration format : formats) {
+                sb.append(MineDown.getDecorationString(format));
             }
             this.formats.removeAll(formats);
         }
     }
 
+    private static Set<TextDecoration> getFormats(Component component) {
+        Set<TextDecoration> formats = new LinkedHashSet<>();
+        for (TextDecoration decoration : TextDecoration.values()) {
+            if (component.style().hasDecoration(decoration)) {
+                formats.add(decoration);
+            }
+        }
+        return formats;
+    }
+
+    private String formatName(TextDecoration decoration) {
+        return TextDecoration.NAMES.key(decoration);
+    }
+
+    private static String colorName(TextColor color) {
+        if (color instanceof NamedTextColor) {
+            return NamedTextColor.NAMES.key((NamedTextColor) color);
+        }
+        return color.asHexString();
+    }
+
+    private static char legacyCode(TextColor color) {
+        for (char code = '0'; code <= 'f'; code = code == '9' ? 'a' : (char) (code + 1)) {
+            if (ColorResolver.legacyColor(code) == color) {
+                return code;
+            }
+        }
+        return 0;
+    }
+
+    private static char legacyCode(TextDecoration decoration) {
+        for (char code = 'k'; code <= 'o'; code++) {
+            if (ColorResolver.legacyDecoration(code) == decoration) {
+                return code;
+            }
+        }
+        return 'r';
+    }
+
     /**
      * Copy all the parser's setting to a new instance
      * @return The new parser instance with all settings copied
@@ -276,14 +382,13 @@ public class MineDownStringifier {
      * @return This stringifier's instance
      */
     public MineDownStringifier copy(MineDownStringifier from) {
-        MineDownStringifier copy = new MineDownStringifier();
         useLegacyColors(from.useLegacyColors());
         useLegacyFormatting(from.useLegacyFormatting());
         preferSimpleEvents(from.preferSimpleEvents());
         formattingInEventDefinition(from.formattingInEventDefinition());
         colorInEventDefinition(from.colorInEventDefinition());
         colorChar(from.colorChar());
-        return copy;
+        return this;
     }
 
     /**
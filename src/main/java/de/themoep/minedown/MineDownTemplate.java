@@ -0,0 +1,836 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.Style;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * A pre-parsed {@link MineDown} message that can be rendered many times with different placeholder values.
+ * <p>
+ * The message only gets parsed once when the template is compiled. The parser writes the styled text runs
+ * directly to the template which records every placeholder as a typed slot in the run's text, click value
+ * or hover text. Rendering only has to fill these slots, it never searches text or walks a component tree.
+ * Runs without any placeholders are stored as finished components and reused by every render.
+ * If the settings {@link MineDownSettings#optimize() optimize} components then the style that all runs
+ * share is moved to the root once when compiling, rendered output is never passed through the optimizer.
+ * <p>
+ * Templates are immutable and can be shared between threads.
+ */
+public final class MineDownTemplate {
+
+    private final String message;
+    private final String placeholderPrefix;
+    private final String placeholderSuffix;
+    private final boolean ignorePlaceholderCase;
+    private final boolean optimized;
+    private final Style style;
+    private final Object[] parts;
+    private final boolean dynamic;
+    private final Component component;
+    private final Set<String> placeholders;
+
+    /**
+     * Compile a message by parsing it with a context
+     * @param message               The message to compile
+     * @param context               The context to parse the message with
+     * @param placeholderPrefix     The placeholder indicator's prefix
+     * @param placeholderSuffix     The placeholder indicator's suffix
+     * @param ignorePlaceholderCase Whether or not the case of the placeholders is ignored when rendering
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     */
+    MineDownTemplate(String message, ParseContext context, String placeholderPrefix, String placeholderSuffix, boolean ignorePlaceholderCase) {
+        Util.validate(placeholderPrefix != null && !placeholderPrefix.isEmpty(), "Placeholder prefix can't be empty!");
+        Util.validate(placeholderSuffix != null && !placeholderSuffix.isEmpty(), "Placeholder suffix can't be empty!");
+        this.message = message;
+        this.placeholderPrefix = placeholderPrefix;
+        this.placeholderSuffix = placeholderSuffix;
+        this.ignorePlaceholderCase = ignorePlaceholderCase;
+        this.optimized = context.settings().optimize();
+        Set<String> placeholders = new LinkedHashSet<>();
+        Compiler compiler = new Compiler(placeholders, optimized);
+        context.writer(compiler).parse(message, 0, message.length());
+        Object[] parts = compiler.finish();
+        if (optimized) {
+            this.style = sharedStyle(parts);
+            this.parts = without(parts, style);
+        } else {
+            this.style = Style.empty();
+            this.parts = parts;
+        }
+        this.dynamic = isDynamic(parts);
+        this.component = renderParts(Collections.emptyMap());
+        this.placeholders = Collections.unmodifiableSet(placeholders);
+    }
+
+    /**
+     * Create a template with some of the placeholders of another one already bound
+     * @param template  The template that the placeholders were bound in
+     * @param parts     The parts with the bound placeholders
+     * @param bound     The keys of the bound placeholders
+     */
+    private MineDownTemplate(MineDownTemplate template, Object[] parts, Set<String> bound) {
+        this.message = template.message;
+        this.placeholderPrefix = template.placeholderPrefix;
+        this.placeholderSuffix = template.placeholderSuffix;
+        this.ignorePlaceholderCase = template.ignorePlaceholderCase;
+        this.optimized = template.optimized;
+        this.style = template.style;
+        this.parts = parts;
+        this.dynamic = isDynamic(parts);
+        this.component = renderParts(Collections.emptyMap());
+        Set<String> placeholders = new LinkedHashSet<>();
+        for (String placeholder : template.placeholders) {
+            if (!bound.contains(key(placeholder))) {
+                placeholders.add(placeholder);
+            }
+        }
+        this.placeholders = Collections.unmodifiableSet(placeholders);
+    }
+
+    /**
+     * Render the template without any placeholder values
+     * @return The parsed component with all placeholders left as they are
+     */
+    public Component render() {
+        return component;
+    }
+
+    /**
+     * Render the template with certain placeholder values.
+     * Values that are {@link Component}s will get inserted unchanged as the child of a component with the
+     * placeholder's style, everything else is inserted as text.
+     * Placeholders that don't have a value will stay as they are.
+     * @param replacements  The replacements mapped placeholder to value
+     * @return              The rendered component
+     */
+    public Component render(Map<String, ?> replacements) {
+        if (!dynamic || replacements.isEmpty()) {
+            return component;
+        }
+        return renderParts(byKey(replacements));
+    }
+
+    /**
+     * Render the template for many recipients with their own placeholder values.
+     * All components without placeholders are shared by the results as the same instances, only the ones
+     * that contain a placeholder are created for every recipient. Use {@link #bind(Map)} first for values that
+     * are the same for all recipients.
+     * @param bindings  The replacements of every recipient mapped placeholder to value
+     * @return          The rendered components in the order of the bindings
+     */
+    public Stream<Component> renderAll(Stream<? extends Map<String, ?>> bindings) {
+        return bindings.map(this::render);
+    }
+
+    /**
+     * Render the template for many recipients with their own placeholder values
+     * and hand every result to a consumer, e.g. to send it to the recipient.
+     * @param recipients    The recipients to render the template for
+     * @param bindings      The function that gets the replacements of a recipient mapped placeholder to value
+     * @param consumer      The consumer of each recipient and the component rendered for it
+     * @param <R>           The type of the recipients
+     * @see #renderAll(Stream)
+     */
+    public <R> void renderAll(Iterable<? extends R> recipients, Function<? super R, ? extends Map<String, ?>> bindings, BiConsumer<? super R, ? super Component> consumer) {
+        for (R recipient : recipients) {
+            consumer.accept(recipient, render(bindings.apply(recipient)));
+        }
+    }
+
+    /**
+     * Bind values to some of the placeholders of this template.
+     * The returned template only has slots for the other placeholders, parts that don't contain any of them
+     * anymore are rendered once and shared by all renders of the new template.
+     * Placeholders that are bound to components stay separate components.
+     * @param replacements  The replacements mapped placeholder to value
+     * @return              A new template with the placeholders bound or this one if nothing was bound
+     */
+    public MineDownTemplate bind(Map<String, ?> replacements) {
+        if (!dynamic || replacements.isEmpty()) {
+            return this;
+        }
+        Map<String, ?> values = byKey(replacements);
+        return new MineDownTemplate(this, bind(parts, values), values.keySet());
+    }
+
+    /**
+     * Render the template with placeholder values that are computed when they are needed
+     * @param resolver  The resolver that gets asked for the values of the placeholders in this template
+     * @return          The rendered component
+     * @see #render(Map, PlaceholderResolver)
+     */
+    public Component render(PlaceholderResolver resolver) {
+        return render(Collections.emptyMap(), resolver);
+    }
+
+    /**
+     * Render the template with certain placeholder values and compute the missing ones when they are needed.
+     * The resolver is only asked once for all placeholders that this template contains and that don't have a replacement.
+     * @param replacements  The replacements mapped placeholder to value
+     * @param resolver      The resolver that gets asked for the values of the other placeholders
+     * @return              The rendered component
+     */
+    public Component render(Map<String, ?> replacements, PlaceholderResolver resolver) {
+        if (!dynamic) {
+            return component;
+        }
+        Map<String, ?> values = byKey(replacements);
+        List<String> unresolved = unresolved(values);
+        if (unresolved.isEmpty()) {
+            return renderParts(values);
+        }
+        return renderParts(merge(values, resolver.resolveAll(unresolved)));
+    }
+
+    /**
+     * Render the template with placeholder values that are computed asynchronously by the resolver
+     * @param resolver  The resolver that gets asked for the values of the placeholders in this template
+     * @return          A future that completes with the rendered component once the values are resolved
+     * @see #renderAsync(Map, PlaceholderResolver)
+     */
+    public CompletableFuture<Component> renderAsync(PlaceholderResolver resolver) {
+        return renderAsync(Collections.emptyMap(), resolver);
+    }
+
+    /**
+     * Render the template with certain placeholder values and compute the missing ones asynchronously.
+     * The resolver is only asked once for all placeholders that this template contains and that don't have a replacement.
+     * @param replacements  The replacements mapped placeholder to value
+     * @param resolver      The resolver that gets asked for the values of the other placeholders
+     * @return              A future that completes with the rendered component once the values are resolved
+     */
+    public CompletableFuture<Component> renderAsync(Map<String, ?> replacements, PlaceholderResolver resolver) {
+        if (!dynamic) {
+            return CompletableFuture.completedFuture(component);
+        }
+        Map<String, ?> values = byKey(replacements);
+        List<String> unresolved = unresolved(values);
+        if (unresolved.isEmpty()) {
+            return CompletableFuture.completedFuture(renderParts(values));
+        }
+        return resolver.resolveAllAsync(unresolved).thenApply(resolved -> renderParts(merge(values, resolved)));
+    }
+
+    /**
+     * Render the template with an array of placeholders and values
+     * @param replacements  The replacements, nth element is the placeholder, n+1th the value
+     * @return              The rendered component
+     */
+    public Component render(String... replacements) {
+        Util.validate(replacements.length % 2 == 0, "The replacement length has to be even, "
+                + "mapping i % 2 == 0 to the placeholder and i % 2 = 1 to the placeholder's value");
+        Map<String, String> replacementMap = new HashMap<>();
+        for (int i = 0; i + 1 < replacements.length; i += 2) {
+            replacementMap.put(replacements[i], replacements[i + 1]);
+        }
+        return render(replacementMap);
+    }
+
+    /**
+     * Get the message this template was compiled from
+     * @return The original message
+     */
+    public String message() {
+        return message;
+    }
+
+    /**
+     * Get the names of all placeholders that this template contains
+     * @return An unmodifiable set of placeholder names in the order they appear in
+     */
+    public Set<String> placeholders() {
+        return placeholders;
+    }
+
+    /**
+     * Get the placeholder indicator's prefix
+     * @return The placeholder indicator's prefix
+     */
+    public String placeholderPrefix() {
+        return placeholderPrefix;
+    }
+
+    /**
+     * Get the placeholder indicator's suffix
+     * @return The placeholder indicator's suffix
+     */
+    public String placeholderSuffix() {
+        return placeholderSuffix;
+    }
+
+    /**
+     * Get whether or not the case of the placeholders is ignored when rendering
+     * @return Whether or not the case of the placeholders is ignored
+     */
+    public boolean ignorePlaceholderCase() {
+        return ignorePlaceholderCase;
+    }
+
+    /**
+     * Split a string into literal parts and placeholder slots
+     * @param string        The string to split
+     * @param placeholders  The set to add all found placeholder names to
+     * @return              The parts with {@link String}s for literal text and {@link Slot}s for placeholders
+     *                      or <tt>null</tt> if the string doesn't contain any placeholder
+     */
+    private Object[] split(String string, Set<String> placeholders) {
+        List<Object> parts = null;
+        int literalStart = 0;
+        int prefixIndex = string.indexOf(placeholderPrefix);
+        while (prefixIndex != -1) {
+            int nameStart = prefixIndex + placeholderPrefix.length();
+            int suffixIndex = string.indexOf(placeholderSuffix, nameStart);
+            if (suffixIndex == -1) {
+                break;
+            }
+            if (isValidName(string, nameStart, suffixIndex)) {
+                if (parts == null) {
+                    parts = new ArrayList<>();
+                }
+                if (prefixIndex > literalStart) {
+                    parts.add(string.substring(literalStart, prefixIndex));
+                }
+                String name = string.substring(nameStart, suffixIndex);
+                placeholders.add(name);
+                parts.add(new Slot(
+                        ignorePlaceholderCase ? name.toLowerCase(Locale.ROOT) : name,
+                        string.substring(prefixIndex, suffixIndex + placeholderSuffix.length())
+                ));
+                literalStart = suffixIndex + placeholderSuffix.length();
+                prefixIndex = string.indexOf(placeholderPrefix, literalStart);
+            } else {
+                // The suffix might be the prefix of the next placeholder, e.g. "100% %name%"
+                prefixIndex = string.indexOf(placeholderPrefix, suffixIndex);
+            }
+        }
+        if (parts == null) {
+            return null;
+        }
+        if (literalStart < string.length()) {
+            parts.add(string.substring(literalStart));
+        }
+        return parts.toArray();
+    }
+
+    private static boolean isValidName(String string, int start, int end) {
+        if (start >= end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (Character.isWhitespace(string.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the key that a placeholder's slots use
+     * @param placeholder   The name of the placeholder
+     * @return              The key, lower case if the case is ignored
+     */
+    private String key(String placeholder) {
+        return ignorePlaceholderCase ? placeholder.toLowerCase(Locale.ROOT) : placeholder;
+    }
+
+    /**
+     * Map replacements by the keys that the slots use
+     * @param replacements  The replacements mapped placeholder to value
+     * @return              The replacements mapped slot key to value
+     */
+    private Map<String, ?> byKey(Map<String, ?> replacements) {
+        if (!ignorePlaceholderCase || replacements.isEmpty()) {
+            return replacements;
+        }
+        Map<String, Object> lowerCased = new HashMap<>();
+        for (Map.Entry<String, ?> entry : replacements.entrySet()) {
+            lowerCased.put(key(entry.getKey()), entry.getValue());
+        }
+        return lowerCased;
+    }
+
+    /**
+     * Get the placeholders of this template that don't have a value
+     * @param values    The values mapped by slot key
+     * @return          The names of the placeholders without a value, each key only once
+     */
+    private List<String> unresolved(Map<String, ?> values) {
+        List<String> unresolved = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+        for (String placeholder : placeholders) {
+            String key = key(placeholder);
+            if (!values.containsKey(key) && keys.add(key)) {
+                unresolved.add(placeholder);
+            }
+        }
+        return unresolved;
+    }
+
+    /**
+     * Add resolved values to the replacements, the replacements take precedence
+     * @param values    The replacements mapped by slot key
+     * @param resolved  The resolved values mapped by placeholder name
+     * @return          All values mapped by slot key
+     */
+    private Map<String, ?> merge(Map<String, ?> values, Map<String, ?> resolved) {
+        if (resolved == null || resolved.isEmpty()) {
+            return values;
+        }
+        Map<String, Object> merged = new HashMap<>(values);
+        for (Map.Entry<String, ?> entry : resolved.entrySet()) {
+            if (entry.getValue() != null) {
+                merged.putIfAbsent(key(entry.getKey()), entry.getValue());
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Bind values to the slots in a list of parts
+     * @param parts     The {@link Component}s and {@link Run}s
+     * @param values    The values mapped by slot key
+     * @return          The parts with the values bound
+     */
+    private static Object[] bind(Object[] parts, Map<String, ?> values) {
+        List<Object> bound = new ArrayList<>(parts.length);
+        for (Object part : parts) {
+            if (part instanceof Run) {
+                ((Run) part).bind(values, bound);
+            } else {
+                bound.add(part);
+            }
+        }
+        return bound.toArray();
+    }
+
+    /**
+     * Bind values to the slots in a list of text parts
+     * @param parts     The literal {@link String}s and {@link Slot}s
+     * @param values    The values mapped by slot key
+     * @param text      Whether or not the parts can only contain text, component values will keep the placeholder
+     * @return          The parts with the values bound, adjacent text is joined
+     */
+    private static Object[] bindText(Object[] parts, Map<String, ?> values, boolean text) {
+        List<Object> bound = new ArrayList<>(parts.length);
+        StringBuilder literal = new StringBuilder();
+        for (Object part : parts) {
+            Object value = part;
+            if (part instanceof Slot) {
+                Slot slot = (Slot) part;
+                value = text ? slot.textValue(values) : slot.value(values);
+                if (value instanceof Component) {
+                    // Keep the slot so the component stays separate, it now always has the value
+                    value = new Slot(slot.key, slot.raw, value);
+                } else if (slot.bound == null && !values.containsKey(slot.key)) {
+                    value = slot;
+                }
+            }
+            if (value instanceof String) {
+                literal.append(value);
+            } else {
+                if (literal.length() > 0) {
+                    bound.add(literal.toString());
+                    literal.setLength(0);
+                }
+                bound.add(value);
+            }
+        }
+        if (literal.length() > 0) {
+            bound.add(literal.toString());
+        }
+        return bound.toArray();
+    }
+
+    /**
+     * Check whether or not text parts have slots that don't have a value
+     * @param parts The literal {@link String}s and {@link Slot}s
+     * @return      <tt>true</tt> if there is an unbound slot
+     */
+    private static boolean hasUnbound(Object[] parts) {
+        for (Object part : parts) {
+            if (part instanceof Slot && ((Slot) part).bound == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDynamic(Object[] parts) {
+        for (Object part : parts) {
+            if (part instanceof Run) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the style that all parts have in common so that it only has to be set on the rendered root.
+     * The events of runs with slots are never shared as they can change with every render.
+     * @param parts The {@link Component}s and {@link Run}s of the template
+     * @return      The shared style
+     */
+    private static Style sharedStyle(Object[] parts) {
+        if (parts.length < 2) {
+            return Style.empty();
+        }
+        List<Style> styles = new ArrayList<>(parts.length);
+        for (Object part : parts) {
+            if (part instanceof Run) {
+                Run run = (Run) part;
+                styles.add(run.events != null ? run.style.toBuilder().clickEvent(null).hoverEvent(null).build() : run.style);
+            } else {
+                styles.add(((Component) part).style());
+            }
+        }
+        return ComponentOptimizer.sharedStyle(styles);
+    }
+
+    /**
+     * Remove a style that gets set on the rendered root from all parts
+     * @param parts     The {@link Component}s and {@link Run}s of the template
+     * @param shared    The style that the parts inherit from the root
+     * @return          The parts without the shared style
+     */
+    private static Object[] without(Object[] parts, Style shared) {
+        if (shared.isEmpty()) {
+            return parts;
+        }
+        StylePool pool = StylePool.global();
+        Object[] stripped = new Object[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            if (parts[i] instanceof Run) {
+                Run run = (Run) parts[i];
+                stripped[i] = new Run(run.content, ComponentOptimizer.without(run.style, shared, pool), run.events);
+            } else {
+                Component component = (Component) parts[i];
+                stripped[i] = component.style(ComponentOptimizer.without(component.style(), shared, pool));
+            }
+        }
+        return stripped;
+    }
+
+    /**
+     * Render the parts of this template below a root with the shared style.
+     * The static parts are inserted as they are, only the runs with slots create new components.
+     * @param replacements  The replacements mapped placeholder to value by their {@link #key(String) key}
+     * @return              The rendered component
+     */
+    private Component renderParts(Map<String, ?> replacements) {
+        return render(parts, style, optimized, replacements);
+    }
+
+    /**
+     * Render a list of parts
+     * @param parts         The {@link Component}s and {@link Run}s to render
+     * @param style         The style of the root component that the parts inherit
+     * @param optimized     Whether or not a single component can be the root itself,
+     *                      otherwise the components are always added to a root like the parser does
+     * @param replacements  The replacements mapped placeholder to value
+     * @return              The rendered component
+     */
+    private static Component render(Object[] parts, Style style, boolean optimized, Map<String, ?> replacements) {
+        List<Component> components = new ArrayList<>(parts.length);
+        for (Object part : parts) {
+            if (part instanceof Run) {
+                ((Run) part).render(replacements, components);
+            } else {
+                components.add((Component) part);
+            }
+        }
+        if (components.isEmpty()) {
+            return Component.empty();
+        }
+        if (optimized && components.size() == 1 && style.isEmpty()) {
+            return components.get(0);
+        }
+        return TextComponent.builder().style(style).append(components).build();
+    }
+
+    /**
+     * Receives the styled text from the parser and splits it into static components and runs with slots
+     */
+    private final class Compiler implements TextWriter {
+        private final Set<String> placeholders;
+        private final List<Object> parts = new ArrayList<>();
+        private final StringBuilder pending = new StringBuilder();
+        private Style pendingStyle = null;
+
+        /**
+         * The slots of every style that was seen, styles without any have no entry
+         */
+        private final Map<Style, EventSlots> eventSlots = new HashMap<>();
+
+        /**
+         * Whether or not the parsed components get optimized, a single rendered component can then be the root itself
+         */
+        private final boolean optimized;
+
+        private Compiler(Set<String> placeholders, boolean optimized) {
+            this.placeholders = placeholders;
+            this.optimized = optimized;
+        }
+
+        @Override
+        public void text(CharSequence text, Style style) {
+            if (text.length() == 0) {
+                return;
+            }
+            if (pending.length() > 0 && !style.equals(pendingStyle)) {
+                flush();
+            }
+            pending.append(text);
+            pendingStyle = style;
+        }
+
+        /**
+         * Add an already parsed component, used for hover texts
+         * @param component The component
+         * @param parent    The style inherited from the parent
+         */
+        private void component(Component component, Style parent) {
+            Style style = parent.merge(component.style());
+            if (!(component instanceof TextComponent)) {
+                flush();
+                parts.add(component.style(style));
+                return;
+            }
+            text(((TextComponent) component).content(), style);
+            for (Component child : component.children()) {
+                component(child, style);
+            }
+        }
+
+        private void flush() {
+            if (pending.length() == 0) {
+                return;
+            }
+            String text = pending.toString();
+            pending.setLength(0);
+            Object[] content = split(text, placeholders);
+            EventSlots events = eventSlots(pendingStyle);
+            if (content == null && events == null) {
+                parts.add(Component.text(text, pendingStyle));
+            } else {
+                parts.add(new Run(content != null ? content : new Object[]{text}, pendingStyle, events));
+            }
+        }
+
+        private EventSlots eventSlots(Style style) {
+            if (style.clickEvent() == null && style.hoverEvent() == null) {
+                return null;
+            }
+            if (eventSlots.containsKey(style)) {
+                return eventSlots.get(style);
+            }
+            Object[] clickValue = null;
+            if (style.clickEvent() != null) {
+                clickValue = split(style.clickEvent().value(), placeholders);
+            }
+            Object[] hover = null;
+            HoverEvent<?> hoverEvent = style.hoverEvent();
+            if (hoverEvent != null && hoverEvent.action() == HoverEvent.Action.SHOW_TEXT) {
+                Compiler hoverCompiler = new Compiler(placeholders, optimized);
+                hoverCompiler.component((Component) hoverEvent.value(), Style.empty());
+                Object[] hoverParts = hoverCompiler.finish();
+                if (isDynamic(hoverParts)) {
+                    hover = hoverParts;
+                }
+            }
+            EventSlots slots = clickValue != null || hover != null ? new EventSlots(clickValue, hover, optimized) : null;
+            eventSlots.put(style, slots);
+            return slots;
+        }
+
+        private Object[] finish() {
+            flush();
+            return parts.toArray();
+        }
+    }
+
+    /**
+     * A text run with placeholder slots in its text or events
+     */
+    private static final class Run {
+        private final Object[] content;
+        private final Style style;
+        private final EventSlots events;
+
+        private Run(Object[] content, Style style, EventSlots events) {
+            this.content = content;
+            this.style = style;
+            this.events = events;
+        }
+
+        /**
+         * Bind values to the slots of this run
+         * @param values    The values mapped by slot key
+         * @param parts     The parts to add the bound run or its rendered components to
+         */
+        private void bind(Map<String, ?> values, List<Object> parts) {
+            Object[] content = bindText(this.content, values, false);
+            Style style = this.style;
+            EventSlots events = null;
+            if (this.events != null) {
+                events = this.events.bind(values);
+                if (!events.isDynamic()) {
+                    style = events.render(style, Collections.emptyMap());
+                    events = null;
+                }
+            }
+            Run run = new Run(content, style, events);
+            if (events == null && !hasUnbound(content)) {
+                // Nothing left to fill, render it once
+                List<Component> components = new ArrayList<>();
+                run.render(Collections.emptyMap(), components);
+                parts.addAll(components);
+            } else {
+                parts.add(run);
+            }
+        }
+
+        private void render(Map<String, ?> replacements, List<Component> components) {
+            Style style = events != null ? events.render(this.style, replacements) : this.style;
+            StringBuilder text = new StringBuilder();
+            for (Object part : content) {
+                Object value = part instanceof Slot ? ((Slot) part).value(replacements) : part;
+                if (value instanceof Component) {
+                    if (text.length() > 0) {
+                        components.add(Component.text(text.toString(), style));
+                        text.setLength(0);
+                    }
+                    // The inserted component inherits the style of the placeholder
+                    components.add(TextComponent.builder().style(style).append((Component) value).build());
+                } else {
+                    text.append(value);
+                }
+            }
+            if (text.length() > 0) {
+                components.add(Component.text(text.toString(), style));
+            }
+        }
+    }
+
+    /**
+     * The placeholder slots in the click value and hover text of a style
+     */
+    private static final class EventSlots {
+        private final Object[] clickValue;
+        private final Object[] hover;
+        private final boolean optimized;
+
+        private EventSlots(Object[] clickValue, Object[] hover, boolean optimized) {
+            this.clickValue = clickValue;
+            this.hover = hover;
+            this.optimized = optimized;
+        }
+
+        private EventSlots bind(Map<String, ?> values) {
+            return new EventSlots(
+                    clickValue != null ? bindText(clickValue, values, true) : null,
+                    hover != null ? MineDownTemplate.bind(hover, values) : null,
+                    optimized
+            );
+        }
+
+        /**
+         * Check whether or not any slot doesn't have a value yet
+         * @return <tt>true</tt> if there is an unbound slot
+         */
+        private boolean isDynamic() {
+            return clickValue != null && hasUnbound(clickValue) || hover != null && MineDownTemplate.isDynamic(hover);
+        }
+
+        private Style render(Style style, Map<String, ?> replacements) {
+            Style.Builder builder = style.toBuilder();
+            if (clickValue != null) {
+                StringBuilder value = new StringBuilder();
+                for (Object part : clickValue) {
+                    value.append(part instanceof Slot ? ((Slot) part).textValue(replacements) : part);
+                }
+                builder.clickEvent(ClickEvent.of(style.clickEvent().action(), value.toString()));
+            }
+            if (hover != null) {
+                builder.hoverEvent(HoverEvent.of(HoverEvent.Action.SHOW_TEXT, MineDownTemplate.render(hover, Style.empty(), optimized, replacements)));
+            }
+            return builder.build();
+        }
+    }
+
+    /**
+     * A placeholder slot in the pre-parsed message
+     */
+    private static final class Slot {
+        private final String key;
+        private final String raw;
+
+        /**
+         * The component that was bound to this slot or <tt>null</tt> if it gets its value when rendering
+         */
+        private final Object bound;
+
+        private Slot(String key, String raw) {
+            this(key, raw, null);
+        }
+
+        private Slot(String key, String raw, Object bound) {
+            this.key = key;
+            this.raw = raw;
+            this.bound = bound;
+        }
+
+        private Object value(Map<String, ?> replacements) {
+            if (bound != null) {
+                return bound;
+            }
+            Object value = replacements.get(key);
+            if (value == null) {
+                return raw;
+            }
+            return value instanceof Component ? value : String.valueOf(value);
+        }
+
+        private String textValue(Map<String, ?> replacements) {
+            Object value = bound != null ? bound : replacements.get(key);
+            return value == null || value instanceof Component ? raw : String.valueOf(value);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+
+import java.util.Arrays;
+
+/**
+ * Splits a {@link MineDown} message into tokens in a single pass.
+ * <p>
+ * Nested formatting and events are not parsed recursively, instead the end index of every
+ * open part is tracked on an explicit stack. Inside of a nested part only its own range is
+ * looked at, exactly like the part would be parsed on its own.
+ * <p>
+ * A tokenizer instance is only used for a single region of a message. The message is never copied,
+ * all tokens are index ranges into it.
+ */
+final class MineDownTokenizer {
+
+    private final MineDownSettings settings;
+    private final CharSequence message;
+    private final int start;
+    private final int end;
+    private final TokenHandler handler;
+
+    /**
+     * The start of the text that wasn't handed to the handler yet
+     */
+    private int textStart;
+
+    /**
+     * The lookup tables of the message, only created once they are needed
+     */
+    private MessageIndex index = null;
+
+    /**
+     * The end of the event text and definitions of the last found event
+     */
+    private int eventTextEnd;
+    private int eventDefinitionEnd;
+
+    /**
+     * The region up to the next space that an url starting in it would need to fill
+     * and the start after the last other whitespace in it as urls can't start before that
+     */
+    private int urlRegionStart = 0;
+    private int urlRegionEnd = 0;
+
+    /**
+     * The stack of the currently open nested parts
+     */
+    private int depth = 0;
+    private int[] stackEnd = new int[8];
+    private int[] stackResume = new int[8];
+    private boolean[] stackUrlDetection = new boolean[8];
+
+    MineDownTokenizer(MineDownSettings settings, CharSequence message, int start, int end, TokenHandler handler) {
+        this.settings = settings;
+        this.message = message;
+        this.start = start;
+        this.end = end;
+        this.handler = handler;
+        this.textStart = start;
+    }
+
+    /**
+     * Tokenize the region of the message and hand all tokens to the handler
+     */
+    void tokenize() {
+        boolean legacyColors = settings.isEnabled(MineDownParser.Option.LEGACY_COLORS);
+        boolean simpleFormatting = settings.isEnabled(MineDownParser.Option.SIMPLE_FORMATTING);
+        boolean advancedFormatting = settings.isEnabled(MineDownParser.Option.ADVANCED_FORMATTING);
+        char colorChar = settings.colorChar();
+        boolean urlDetection = settings.urlDetection();
+        int end = this.end;
+        int i = start;
+        while (true) {
+            if (i >= end) {
+                flush(end);
+                if (depth == 0) {
+                    break;
+                }
+                handler.pop();
+                depth--;
+                end = stackEnd[depth];
+                urlDetection = stackUrlDetection[depth];
+                i = stackResume[depth];
+                textStart = i;
+                continue;
+            }
+
+            char c = message.charAt(i);
+
+            // Escaping
+            if (c == '\\' && i + 1 < end) {
+                flush(i);
+                textStart = i + 1;
+                i += 2;
+                continue;
+            }
+
+            // Legacy color codes
+            if (legacyColors && i + 1 < end && (c == MineDownParser.LEGACY_COLOR_CHAR || c == colorChar)) {
+                int next = colorCode(i, end);
+                if (next < 0) {
+                    // Not a valid code, keep both characters as text
+                    i += 2;
+                } else {
+                    textStart = next;
+                    i = next;
+                }
+                continue;
+            }
+
+            // Events
+            if (advancedFormatting && c == '[' && isEvent(i, end)) {
+                flush(i);
+                push(end, eventDefinitionEnd + 1, urlDetection);
+                if (settings.isFiltered(MineDownParser.Option.ADVANCED_FORMATTING)) {
+                    handler.push(null);
+                } else {
+                    handler.pushEvent(message, eventTextEnd + 2, eventDefinitionEnd);
+                    urlDetection = false;
+                }
+                end = eventTextEnd;
+                i = i + 1;
+                textStart = i;
+                continue;
+            }
+
+            // Simple formatting
+            if (simpleFormatting && (c == '_' || c == '*' || c == '~' || c == '?' || c == '#')
+                    && i + 1 < end && message.charAt(i + 1) == c) {
+                int formatEnd = index().closingFormat(i);
+                if (formatEnd != -1 && formatEnd + 2 <= end) {
+                    flush(i);
+                    push(end, formatEnd + 2, urlDetection);
+                    handler.push(settings.isFiltered(MineDownParser.Option.SIMPLE_FORMATTING) ? null : MineDown.getDecorationFromChar(c));
+                    end = formatEnd;
+                    i = i + 2;
+                    textStart = i;
+                    continue;
+                }
+            }
+
+            // URL, can only start at the beginning of a word
+            if (urlDetection && (i == textStart || !UrlScanner.isHostChar(message.charAt(i - 1)))) {
+                if (i >= urlRegionEnd || urlRegionEnd > end) {
+                    findUrlRegion(i, end);
+                }
+                if (i >= urlRegionStart) {
+                    int urlEnd = UrlScanner.urlEnd(message, i, urlRegionEnd);
+                    if (UrlScanner.isUrl(message, i, urlEnd)) {
+                        flush(i);
+                        handler.url(message, i, urlEnd);
+                        textStart = urlEnd;
+                        i = urlEnd;
+                        continue;
+                    }
+                }
+            }
+
+            // It's normal text, it will get handed to the handler once the next token is found
+            i++;
+        }
+    }
+
+    /**
+     * Hand the text up to a certain index to the handler
+     * @param index The index up to which the text should be handed over (exclusive)
+     */
+    private void flush(int index) {
+        if (textStart < index) {
+            handler.text(message, textStart, index);
+        }
+        textStart = index;
+    }
+
+    /**
+     * Get the lookup tables of the message, they are created when they are needed for the first time
+     * @return The lookup tables
+     */
+    MessageIndex index() {
+        if (index == null) {
+            index = new MessageIndex(message, start, end);
+        }
+        return index;
+    }
+
+    /**
+     * Find the region up to the next space that an url starting at an index would need to fill.
+     * Only done once per region so that words don't get scanned again for every possible url start.
+     * @param i     The index at which the url would start
+     * @param end   The end of the current part
+     */
+    private void findUrlRegion(int i, int end) {
+        urlRegionEnd = UrlScanner.regionEnd(message, i, end);
+        urlRegionStart = UrlScanner.regionStart(message, i, urlRegionEnd);
+    }
+
+    /**
+     * Open a new nested part and remember where the current one ends
+     * @param end           The end of the current part
+     * @param resume        The index at which to continue in the current part once the nested one is closed
+     * @param urlDetection  Whether or not urls are detected in the current part
+     */
+    private void push(int end, int resume, boolean urlDetection) {
+        if (depth == stackEnd.length) {
+            stackEnd = Arrays.copyOf(stackEnd, depth * 2);
+            stackResume = Arrays.copyOf(stackResume, depth * 2);
+            stackUrlDetection = Arrays.copyOf(stackUrlDetection, depth * 2);
+        }
+        stackEnd[depth] = end;
+        stackResume[depth] = resume;
+        stackUrlDetection[depth] = urlDetection;
+        depth++;
+    }
+
+    /**
+     * Parse a color code at a certain index and hand it to the handler
+     * @param i     The index of the color char
+     * @param end   The end of the current part
+     * @return      The index after the color code or <tt>-1</tt> if there was no valid color code
+     */
+    private int colorCode(int i, int end) {
+        char c = message.charAt(i);
+        char code = message.charAt(i + 1);
+        if (code >= 'A' && code <= 'Z') {
+            code += 32;
+        }
+
+        if (code == 'x') {
+            // Legacy hex format: &x&r&r&g&g&b&b
+            int rgb = 0;
+            int digits = 0;
+            for (int j = i + 2; j < end; j++) {
+                char c1 = message.charAt(j);
+                if (c1 == c) {
+                    continue;
+                }
+                int digit = Character.digit(c1, 16);
+                if (digit < 0) {
+                    break;
+                }
+                rgb = rgb << 4 | digit;
+                if (++digits == 6) {
+                    flush(i);
+                    if (!settings.isFiltered(MineDownParser.Option.LEGACY_COLORS)) {
+                        handler.color(ColorResolver.rgb(rgb));
+                    }
+                    return j + 1;
+                }
+            }
+        } else {
+            // Named or hex format: &gold&, &#ff00ff& or &#f0f&
+            for (int j = i + 1; j < end; j++) {
+                char c1 = message.charAt(j);
+                if (c1 == c && j - i > 2) {
+                    TextColor color = ColorResolver.color(message, i + 1, j);
+                    TextDecoration decoration = color == null && message.charAt(i + 1) != '#'
+                            ? DefinitionKeywords.decoration(message, i + 1, j) : null;
+                    if (color != null || decoration != null) {
+                        flush(i);
+                        if (!settings.isFiltered(MineDownParser.Option.SIMPLE_FORMATTING)) {
+                            if (color != null) {
+                                handler.color(color);
+                            } else {
+                                handler.decoration(decoration);
+                            }
+                        }
+                        return j + 1;
+                    }
+                    break;
+                }
+                if (c1 != '_' && c1 != '#' && (c1 < 'A' || c1 > 'Z') && (c1 < 'a' || c1 > 'z') && (c1 < '0' || c1 > '9')) {
+                    break;
+                }
+            }
+        }
+
+        // Legacy format: &6
+        TextColor color = ColorResolver.legacyColor(code);
+        TextDecoration decoration = color == null ? ColorResolver.legacyDecoration(code) : null;
+        if (color == null && decoration == null && code != 'r') {
+            return -1;
+        }
+        flush(i);
+        if (!settings.isFiltered(MineDownParser.Option.LEGACY_COLORS)) {
+            if (color != null) {
+                handler.color(color);
+            } else if (decoration != null) {
+                handler.decoration(decoration);
+            } else {
+                handler.reset();
+            }
+        }
+        return i + 2;
+    }
+
+    /**
+     * Check whether or not there is an event starting at a certain index.
+     * Sets {@link #eventTextEnd} and {@link #eventDefinitionEnd} if there is one.
+     * @param i     The index of the opening bracket
+     * @param end   The end of the current part
+     * @return      Whether or not there is an event
+     */
+    private boolean isEvent(int i, int end) {
+        MessageIndex index = index();
+        int textEnd = index.nextEventClose(i + 1);
+        if (textEnd == -1 || textEnd + 2 >= end) {
+            return false;
+        }
+        int definitionEnd = index.nextDefinitionClose(textEnd + 2);
+        if (definitionEnd == -1 || definitionEnd >= end) {
+            return false;
+        }
+        // The text can't contain a bracket that closes the opening one
+        int closingBracket = index.matchingBracket(i);
+        if (closingBracket != -1 && closingBracket < textEnd) {
+            return false;
+        }
+        eventTextEnd = textEnd;
+        eventDefinitionEnd = definitionEnd;
+        return true;
+    }
+}
@@ -0,0 +1,751 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.nbt.api.BinaryTagHolder;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * The state of a single parse. Builds the components from the tokens of a message.
+ * <p>
+ * The style of all open nested parts is kept on a stack instead of parsing them with a new parser.
+ * A context is cheap to create and only used by one thread, all configuration comes from the
+ * immutable {@link MineDownSettings}.
+ */
+final class ParseContext implements TokenHandler {
+
+    private final MineDownSettings settings;
+    private final Deque<Frame> frames = new ArrayDeque<>();
+
+    private TextComponent.Builder builder;
+    private StringBuilder value = new StringBuilder();
+    private String font;
+    private TextColor color;
+    private Set<TextDecoration> format = new HashSet<>();
+    private ClickEvent clickEvent;
+    private HoverEvent<?> hoverEvent;
+
+    /**
+     * The style of the current text, <tt>null</tt> if it needs to be created again
+     */
+    private Style style;
+
+    /**
+     * The hovers of the urls found in this message so that repeated urls share them
+     */
+    private Map<String, HoverEvent<?>> urlHovers = null;
+
+    /**
+     * The problems found in the message, <tt>null</tt> if they should be thrown instead
+     */
+    private List<ParseResult.Problem> problems = null;
+
+    /**
+     * The writer that the text gets written to, <tt>null</tt> if components should be built
+     */
+    private TextWriter writer = null;
+
+    ParseContext(MineDownSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Get the settings that this context parses with
+     * @return The settings
+     */
+    MineDownSettings settings() {
+        return settings;
+    }
+
+    /**
+     * Set the style that the parsed text starts with
+     * @param font          The font
+     * @param color         The color
+     * @param format        The formatting
+     * @param clickEvent    The click event
+     * @param hoverEvent    The hover event
+     * @return This context
+     */
+    ParseContext style(String font, TextColor color, Set<TextDecoration> format, ClickEvent clickEvent, HoverEvent<?> hoverEvent) {
+        this.font = font;
+        this.color = color;
+        this.format = format != null ? new HashSet<>(format) : new HashSet<>();
+        this.clickEvent = clickEvent;
+        this.hoverEvent = hoverEvent;
+        this.style = null;
+        return this;
+    }
+
+    /**
+     * Set the builder that the parsed components get appended to
+     * @param builder The builder
+     * @return This context
+     */
+    ParseContext builder(TextComponent.Builder builder) {
+        this.builder = builder;
+        return this;
+    }
+
+    /**
+     * Collect problems with the message in a list instead of throwing them or silently ignoring them when lenient
+     * @param problems The list to add the problems to
+     * @return This context
+     */
+    ParseContext problems(List<ParseResult.Problem> problems) {
+        this.problems = problems;
+        return this;
+    }
+
+    /**
+     * Write the parsed text to a writer instead of building components
+     * @param writer The writer
+     * @return This context
+     */
+    ParseContext writer(TextWriter writer) {
+        this.writer = writer;
+        return this;
+    }
+
+    /**
+     * Create a new context that continues with the current style of this one
+     * @return The new context
+     */
+    ParseContext continuation() {
+        return new ParseContext(settings).style(font, color, format, clickEvent, hoverEvent);
+    }
+
+    /**
+     * Check whether or not another context currently has the same style as this one
+     * @param other The other context
+     * @return Whether or not the font, color, formatting and events are equal
+     */
+    boolean hasSameStyle(ParseContext other) {
+        return Objects.equals(font, other.font)
+                && Objects.equals(color, other.color)
+                && format.equals(other.format)
+                && Objects.equals(clickEvent, other.clickEvent)
+                && Objects.equals(hoverEvent, other.hoverEvent);
+    }
+
+    /**
+     * Parse a region of a message
+     * @param message The message to parse
+     * @param start   The index in the message to start parsing at (inclusive)
+     * @param end     The index in the message to stop parsing at (exclusive)
+     * @return The builder with the parsed components or <tt>null</tt> if the text is written to a writer
+     * @throws IllegalArgumentException Thrown when a parsing error occurs and lenient is set to false
+     * @throws IndexOutOfBoundsException Thrown when the region is not inside of the message
+     */
+    TextComponent.Builder parse(CharSequence message, int start, int end) throws IllegalArgumentException {
+        if (start < 0 || end > message.length() || start > end) {
+            throw new IndexOutOfBoundsException("Region " + start + "-" + end + " is not inside of the message with length " + message.length());
+        }
+        if (builder == null && writer == null) {
+            builder = TextComponent.builder();
+        }
+        new MineDownTokenizer(settings, message, start, end, this).tokenize();
+        appendValue();
+        return builder;
+    }
+
+    private void appendValue() {
+        if (value.length() == 0) {
+            return;
+        }
+        if (style == null) {
+            style = createStyle(clickEvent, hoverEvent);
+        }
+        if (writer != null) {
+            writer.text(value, style);
+        } else {
+            builder.append(Component.text(value.toString(), style));
+        }
+        value.setLength(0);
+    }
+
+    private void appendUrl(String url) {
+        appendValue();
+        String v = url;
+        if (!v.startsWith("http://") && !v.startsWith("https://")) {
+            v = "http://" + v;
+        }
+        HoverEvent<?> hover = hoverEvent;
+        if (hover == null && events()) {
+            hover = urlHover(url);
+        }
+        Style urlStyle = createStyle(clickEvent != null ? clickEvent : ClickEvent.of(ClickEvent.Action.OPEN_URL, v), hover);
+        if (writer != null) {
+            writer.text(url, urlStyle);
+        } else {
+            builder.append(Component.text(url, urlStyle));
+        }
+    }
+
+    /**
+     * Get the hover of a detected url from the compiled hover text
+     * @param url   The url
+     * @return      The hover or <tt>null</tt> if urls don't have a hover text
+     */
+    private HoverEvent<?> urlHover(String url) {
+        MineDownTemplate template = settings.urlHoverTemplate();
+        if (template == null) {
+            return null;
+        }
+        if (urlHovers == null) {
+            urlHovers = new HashMap<>();
+        }
+        HoverEvent<?> hover = urlHovers.get(url);
+        if (hover == null) {
+            hover = HoverEvent.of(HoverEvent.Action.SHOW_TEXT, template.render(Collections.singletonMap("url", url)));
+            urlHovers.put(url, hover);
+        }
+        return hover;
+    }
+
+    /**
+     * Create the style of the current text. The color, font, events and the style itself
+     * are interned in the {@link StylePool#global() global pool} if there is one.
+     * @param clickEvent    The click event
+     * @param hoverEvent    The hover event
+     * @return The interned style
+     */
+    private Style createStyle(ClickEvent clickEvent, HoverEvent<?> hoverEvent) {
+        StylePool pool = StylePool.global();
+        Style.Builder style = Style.builder();
+        if (font != null) {
+            style.font(intern(pool, Key.of(font)));
+        }
+        style.color(intern(pool, color));
+        for (TextDecoration decoration : format) {
+            style.decoration(decoration, true);
+        }
+        style.clickEvent(clickEvent);
+        style.hoverEvent(hoverEvent);
+        return pool != null ? pool.internStyle(style.build()) : style.build();
+    }
+
+    private static <T> T intern(StylePool pool, T value) {
+        return pool != null ? pool.intern(value) : value;
+    }
+
+    /**
+     * Parse a {@link MineDown} event definition string and use it as the current style.
+     * The definitions are parsed in place, only the values that end up in the style get copied.
+     * @param definitions The sequence containing the event definitions
+     * @param start       The start of the event definitions (inclusive)
+     * @param end         The end of the event definitions (exclusive)
+     * @throws IllegalArgumentException Thrown when a definition is invalid and lenient is set to false
+     */
+    void applyDefinitions(CharSequence definitions, int start, int end) throws IllegalArgumentException {
+        String font = null;
+        TextColor color = null;
+        Set<TextDecoration> formats = new HashSet<>();
+        ClickEvent clickEvent = null;
+        HoverEvent<?> hoverEvent = null;
+
+        // Definitions are separated by single spaces, the index of a definition is counted like when splitting at them
+        int index = -1;
+        int formatEnd = -1;
+
+        int next = start;
+        while (next <= end) {
+            int partStart = next;
+            int partEnd = indexOf(definitions, ' ', partStart, end);
+            next = partEnd + 1;
+            index++;
+            if (partStart == partEnd) {
+                continue;
+            }
+
+            int equals = indexOf(definitions, '=', partStart, partEnd);
+            if (equals == partEnd) {
+                TextColor parsedColor = ColorResolver.color(definitions, partStart, partEnd);
+                if (parsedColor != null) {
+                    color = parsedColor;
+                    formatEnd = index;
+                    continue;
+                }
+                TextDecoration decoration = DefinitionKeywords.decoration(definitions, partStart, partEnd);
+                if (decoration != null) {
+                    formats.add(decoration);
+                    formatEnd = index;
+                    continue;
+                }
+            }
+
+            DefinitionKeywords.Keyword keyword = equals > partStart
+                    ? DefinitionKeywords.keyword(definitions, partStart, equals) : null;
+
+            if (keyword != null && keyword.type() == DefinitionKeywords.Type.FONT) {
+                font = definitions.subSequence(equals + 1, partEnd).toString();
+                formatEnd = index;
+                continue;
+            }
+
+            if (keyword != null && keyword.type() == DefinitionKeywords.Type.COLOR) {
+                TextColor parsedColor = ColorResolver.color(definitions, equals + 1, partEnd);
+                if (parsedColor != null) {
+                    color = parsedColor;
+                } else if (reportsProblems()) {
+                    problem(equals + 1, partEnd, definitions.subSequence(equals + 1, partEnd) + " is not a color!");
+                }
+                formatEnd = index;
+                continue;
+            }
+
+            if (keyword != null && keyword.type() == DefinitionKeywords.Type.FORMAT) {
+                int formatStart = equals + 1;
+                while (formatStart <= partEnd) {
+                    int formatStop = indexOf(definitions, ',', formatStart, partEnd);
+                    TextDecoration decoration = DefinitionKeywords.decoration(definitions, formatStart, formatStop);
+                    if (decoration != null) {
+                        formats.add(decoration);
+                    } else if (reportsProblems()) {
+                        problem(formatStart, formatStop, definitions.subSequence(formatStart, formatStop) + " is not a format!");
+                    }
+                    formatStart = formatStop + 1;
+                }
+                formatEnd = index;
+                continue;
+            }
+
+            if (index == formatEnd + 1 && UrlScanner.isUrl(definitions, partStart, partEnd)) {
+                clickEvent = ClickEvent.of(ClickEvent.Action.OPEN_URL, withUrlPrefix(definitions, partStart, partEnd));
+                continue;
+            }
+
+            ClickEvent.Action clickAction = null;
+            HoverEvent.Action<?> hoverAction = null;
+            int valueStart = partStart;
+            if (keyword != null) {
+                clickAction = keyword.clickAction();
+                hoverAction = keyword.hoverAction();
+                valueStart = equals + 1;
+            } else if (definitions.charAt(partStart) == '/') {
+                clickAction = ClickEvent.Action.RUN_COMMAND;
+            }
+
+            // The value goes up to the next definition or to the matching closing bracket
+            int valueEnd = partEnd;
+            boolean bracketed = keyword != null && valueStart < partEnd && definitions.charAt(valueStart) == '{';
+            if (bracketed) {
+                valueStart++;
+            }
+            if (bracketed && valueStart < partEnd && isClosingBracket(definitions, valueStart, partEnd - 1)) {
+                valueEnd = partEnd - 1;
+            } else {
+                int bracketDepth = bracketed ? 1 : 0;
+                while (next <= end) {
+                    int valuePartStart = next;
+                    int valuePartEnd = indexOf(definitions, ' ', valuePartStart, end);
+                    if (bracketDepth == 0) {
+                        int valueEquals = indexOf(definitions, '=', valuePartStart, valuePartEnd);
+                        if (valueEquals > valuePartStart && valueEquals < valuePartEnd
+                                && !isEscaped(definitions, valuePartStart, valueEquals)) {
+                            break;
+                        }
+                    } else {
+                        if (opensBracket(definitions, valuePartStart, valuePartEnd)) {
+                            bracketDepth++;
+                        }
+                        if (valuePartEnd > valuePartStart && isClosingBracket(definitions, valuePartStart, valuePartEnd - 1)
+                                && --bracketDepth == 0) {
+                            valueEnd = valuePartEnd - 1;
+                            next = valuePartEnd + 1;
+                            index++;
+                            break;
+                        }
+                    }
+                    valueEnd = valuePartEnd;
+                    next = valuePartEnd + 1;
+                    index++;
+                }
+            }
+            String value = definitions.subSequence(valueStart, valueEnd).toString();
+
+            if (clickAction != null) {
+                if (settings.autoAddUrlPrefix() && clickAction == ClickEvent.Action.OPEN_URL) {
+                    value = withUrlPrefix(value, 0, value.length());
+                }
+                clickEvent = ClickEvent.of(clickAction, value);
+            } else if (hoverAction == null) {
+                hoverAction = HoverEvent.Action.SHOW_TEXT;
+            }
+            if (hoverAction == HoverEvent.Action.SHOW_TEXT && events()) {
+                hoverEvent = HoverEvent.of(HoverEvent.Action.SHOW_TEXT, parseHoverText(value, valueStart, valueEnd));
+            } else if (hoverAction == HoverEvent.Action.SHOW_ENTITY) {
+                HoverEvent.ShowEntity entity = parseEntity(value);
+                if (entity != null) {
+                    hoverEvent = HoverEvent.of(HoverEvent.Action.SHOW_ENTITY, entity);
+                } else if (reportsProblems()) {
+                    problem(valueStart, valueEnd, "Invalid entity definition. Needs to be of format uuid:id or uuid:namespace:id!");
+                }
+            } else if (hoverAction == HoverEvent.Action.SHOW_ITEM) {
+                HoverEvent.ShowItem item = parseItem(value);
+                if (item != null) {
+                    hoverEvent = HoverEvent.of(HoverEvent.Action.SHOW_ITEM, item);
+                } else if (reportsProblems()) {
+                    problem(valueStart, valueEnd, "Invalid item definition. Needs to be of format id, id*count or namespace:id*count followed by optional nbt!");
+                }
+            }
+        }
+
+        if (clickEvent != null && hoverEvent == null && events()) {
+            hoverEvent = HoverEvent.of(HoverEvent.Action.SHOW_TEXT,
+                    TextComponent.builder(DefinitionKeywords.label(clickEvent.action())).color(NamedTextColor.BLUE)
+                            .append(Component.text(" " + clickEvent.value(), NamedTextColor.WHITE))
+                            .build());
+        }
+
+        this.font = font;
+        this.color = color;
+        this.format = formats;
+        this.clickEvent = clickEvent;
+        this.hoverEvent = hoverEvent;
+        this.style = null;
+    }
+
+    /**
+     * Parse the entity of a show_entity definition.
+     * Ids that aren't a uuid get a name based uuid so that the same id always results in the same uuid.
+     * @param value The value in the format <tt>uuid:id name</tt> or <tt>uuid:namespace:id name</tt>
+     * @return      The entity or <tt>null</tt> if the value is invalid
+     */
+    private HoverEvent.ShowEntity parseEntity(String value) {
+        int colon = value.indexOf(':');
+        if (colon < 1) {
+            return null;
+        }
+        UUID id = parseUuid(value, 0, colon);
+        if (id == null) {
+            id = UUID.nameUUIDFromBytes(value.substring(0, colon).getBytes(StandardCharsets.UTF_8));
+        }
+        int space = indexOf(value, ' ', colon + 1, value.length());
+        Key type = parseKey(value, colon + 1, space);
+        if (type == null) {
+            return null;
+        }
+        Component name = space < value.length()
+                ? settings.withoutUrlDetection().parse(value, space + 1, value.length()) : null;
+        return HoverEvent.ShowEntity.of(type, id, name);
+    }
+
+    /**
+     * Parse the text of a show_text definition, problems in it are reported at their position in the definitions
+     * @param value The text to parse
+     * @param start The start of the text in the definitions (inclusive)
+     * @param end   The end of the text in the definitions (exclusive)
+     * @return      The parsed hover text
+     */
+    private Component parseHoverText(String value, int start, int end) {
+        String wrapped = Util.wrap(value, settings.hoverTextWidth());
+        if (problems == null) {
+            return settings.withoutUrlDetection().parse(wrapped);
+        }
+        List<ParseResult.Problem> hoverProblems = new ArrayList<>();
+        Component hover = new ParseContext(settings.withoutUrlDetection()).problems(hoverProblems)
+                .parse(wrapped, 0, wrapped.length()).build();
+        for (ParseResult.Problem problem : hoverProblems) {
+            if (wrapped == value) {
+                problems.add(new ParseResult.Problem(start + problem.start(), start + problem.end(), problem.message()));
+            } else {
+                // Wrapping moved the text around, the exact position is unknown
+                problems.add(new ParseResult.Problem(start, end, problem.message()));
+            }
+        }
+        return hover;
+    }
+
+    /**
+     * Check whether or not the output contains events, hover texts don't need to be parsed if it doesn't
+     * @return <tt>true</tt> if components are built or the writer writes events
+     */
+    private boolean events() {
+        return writer == null || writer.events();
+    }
+
+    /**
+     * Check whether or not problems with the message need to be reported
+     * @return <tt>true</tt> if they are collected or thrown, <tt>false</tt> if they are silently ignored
+     */
+    private boolean reportsProblems() {
+        return problems != null || !settings.lenient();
+    }
+
+    /**
+     * Report a problem with the message. It gets collected when problems are collected
+     * or thrown when they aren't and lenient is set to false.
+     * @param start     The start of the problematic region in the message (inclusive)
+     * @param end       The end of the problematic region in the message (exclusive)
+     * @param message   The description of the problem
+     * @throws IllegalArgumentException Thrown when problems aren't collected and lenient is set to false
+     */
+    private void problem(int start, int end, String message) throws IllegalArgumentException {
+        if (problems != null) {
+            problems.add(new ParseResult.Problem(start, end, message));
+        } else if (!settings.lenient()) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    /**
+     * Parse the item of a show_item definition
+     * @param value The value in the format <tt>id*count nbt</tt> where the namespace, count and nbt are optional
+     * @return      The item or <tt>null</tt> if the value is invalid
+     */
+    private static HoverEvent.ShowItem parseItem(String value) {
+        int space = indexOf(value, ' ', 0, value.length());
+        int idEnd = space;
+        int count = 1;
+        int countIndex = value.lastIndexOf('*', space - 1);
+        if (countIndex > 0 && countIndex + 1 < space) {
+            count = 0;
+            for (int i = countIndex + 1; i < space; i++) {
+                int digit = Character.digit(value.charAt(i), 10);
+                if (digit < 0 || count > (Integer.MAX_VALUE - digit) / 10) {
+                    return null;
+                }
+                count = count * 10 + digit;
+            }
+            idEnd = countIndex;
+        }
+        Key id = parseKey(value, 0, idEnd);
+        if (id == null) {
+            return null;
+        }
+        if (space < value.length()) {
+            return HoverEvent.ShowItem.of(id, count, BinaryTagHolder.of(value.substring(space + 1)));
+        }
+        return HoverEvent.ShowItem.of(id, count);
+    }
+
+    /**
+     * Parse a namespaced key, keys without a namespace are in the <tt>minecraft</tt> namespace
+     * @param value The string containing the key
+     * @param start The start of the key (inclusive)
+     * @param end   The end of the key (exclusive)
+     * @return      The key or <tt>null</tt> if it contains invalid characters
+     */
+    private static Key parseKey(String value, int start, int end) {
+        if (start >= end) {
+            return null;
+        }
+        int colon = -1;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == ':' && colon == -1 && i > start) {
+                colon = i;
+            } else if (c != '_' && c != '-' && c != '.' && (c != '/' || colon == -1)
+                    && (c < 'a' || c > 'z') && (c < '0' || c > '9')) {
+                return null;
+            }
+        }
+        if (colon == end - 1) {
+            return null;
+        }
+        return Key.of(colon == -1 ? "minecraft:" + value.substring(start, end) : value.substring(start, end));
+    }
+
+    /**
+     * Parse a uuid in its string representation
+     * @param value The string containing the uuid
+     * @param start The start of the uuid (inclusive)
+     * @param end   The end of the uuid (exclusive)
+     * @return      The uuid or <tt>null</tt> if it isn't a valid uuid
+     */
+    private static UUID parseUuid(String value, int start, int end) {
+        if (end - start != 36) {
+            return null;
+        }
+        long mostSignificant = 0;
+        long leastSignificant = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            int position = i - start;
+            if (position == 8 || position == 13 || position == 18 || position == 23) {
+                if (c != '-') {
+                    return null;
+                }
+                continue;
+            }
+            int digit = Character.digit(c, 16);
+            if (digit < 0) {
+                return null;
+            }
+            if (digits < 16) {
+                mostSignificant = mostSignificant << 4 | digit;
+            } else {
+                leastSignificant = leastSignificant << 4 | digit;
+            }
+            digits++;
+        }
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    /**
+     * Add the <tt>http://</tt> prefix to an url if it doesn't have a protocol
+     * @param url   The sequence containing the url
+     * @param start The start of the url (inclusive)
+     * @param end   The end of the url (exclusive)
+     * @return      The url with a protocol
+     */
+    private static String withUrlPrefix(CharSequence url, int start, int end) {
+        String value = url.subSequence(start, end).toString();
+        if (!value.startsWith("http://") && !value.startsWith("https://")) {
+            return "http://" + value;
+        }
+        return value;
+    }
+
+    /**
+     * Find a character in a region
+     * @param sequence  The sequence to search in
+     * @param c         The character to find
+     * @param start     The start of the region (inclusive)
+     * @param end       The end of the region (exclusive)
+     * @return          The index of the character or the end of the region if it wasn't found
+     */
+    private static int indexOf(CharSequence sequence, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (sequence.charAt(i) == c) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Check whether or not a character in a definition is escaped
+     * @param definitions   The definitions
+     * @param start         The start of the definition, backslashes before it don't count
+     * @param index         The index of the character
+     * @return              Whether or not there is an uneven amount of backslashes in front of the character
+     */
+    private static boolean isEscaped(CharSequence definitions, int start, int index) {
+        int e = 0;
+        while (index - e > start && definitions.charAt(index - e - 1) == '\\') {
+            e++;
+        }
+        return e % 2 != 0;
+    }
+
+    private static boolean isClosingBracket(CharSequence definitions, int start, int index) {
+        return definitions.charAt(index) == '}' && !isEscaped(definitions, start, index);
+    }
+
+    private static boolean opensBracket(CharSequence definitions, int start, int end) {
+        for (int i = start + 1; i + 1 < end; i++) {
+            if (definitions.charAt(i) == '=' && definitions.charAt(i + 1) == '{') {
+                return !isEscaped(definitions, start, i) && !isEscaped(definitions, start, i + 1);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void text(CharSequence message, int start, int end) {
+        value.append(message, start, end);
+    }
+
+    @Override
+    public void color(TextColor color) {
+        appendValue();
+        this.color = color;
+        format = new HashSet<>();
+        style = null;
+    }
+
+    @Override
+    public void decoration(TextDecoration decoration) {
+        appendValue();
+        if (format.add(decoration)) {
+            style = null;
+        }
+    }
+
+    @Override
+    public void reset() {
+        appendValue();
+        color = null;
+        format = new HashSet<>();
+        style = null;
+    }
+
+    @Override
+    public void url(CharSequence message, int start, int end) {
+        appendUrl(message.subSequence(start, end).toString());
+    }
+
+    @Override
+    public void push(TextDecoration decoration) {
+        appendValue();
+        frames.push(new Frame());
+        format = new HashSet<>(format);
+        if (decoration != null && format.add(decoration)) {
+            style = null;
+        }
+    }
+
+    @Override
+    public void pushEvent(CharSequence message, int definitionStart, int definitionEnd) {
+        appendValue();
+        frames.push(new Frame());
+        applyDefinitions(message, definitionStart, definitionEnd);
+    }
+
+    @Override
+    public void pop() {
+        appendValue();
+        frames.pop().restore();
+    }
+
+    /**
+     * The style of a part that contains a nested part
+     */
+    private class Frame {
+        private final String font = ParseContext.this.font;
+        private final TextColor color = ParseContext.this.color;
+        private final Set<TextDecoration> format = ParseContext.this.format;
+        private final ClickEvent clickEvent = ParseContext.this.clickEvent;
+        private final HoverEvent<?> hoverEvent = ParseContext.this.hoverEvent;
+        private final Style style = ParseContext.this.style;
+
+        private void restore() {
+            ParseContext.this.font = font;
+            ParseContext.this.color = color;
+            ParseContext.this.format = format;
+            ParseContext.this.clickEvent = clickEvent;
+            ParseContext.this.hoverEvent = hoverEvent;
+            ParseContext.this.style = style;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.kyori.adventure.text.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of parsing a {@link MineDown} message with diagnostics. Contains the component
+ * and all problems that were found in the message instead of throwing them.
+ * Invalid parts are skipped like when parsing leniently.
+ */
+public final class ParseResult {
+
+    private final Component component;
+    private final List<Problem> problems;
+
+    ParseResult(Component component, List<Problem> problems) {
+        this.component = component;
+        this.problems = problems.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(problems);
+    }
+
+    /**
+     * Get the parsed component
+     * @return The component with all invalid parts skipped
+     */
+    public Component component() {
+        return component;
+    }
+
+    /**
+     * Get the problems that were found in the message
+     * @return An unmodifiable list of problems in the order they were found in
+     */
+    public List<Problem> problems() {
+        return problems;
+    }
+
+    /**
+     * Get whether or not problems were found in the message
+     * @return <tt>true</tt> if there was at least one problem
+     */
+    public boolean hasProblems() {
+        return !problems.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ParseResult{component=" + component + ", problems=" + problems + "}";
+    }
+
+    /**
+     * A problem in a parsed message
+     */
+    public static final class Problem {
+        private final int start;
+        private final int end;
+        private final String message;
+
+        Problem(int start, int end, String message) {
+            this.start = start;
+            this.end = end;
+            this.message = message;
+        }
+
+        /**
+         * Get the start of the problematic region
+         * @return The index in the message where the region starts (inclusive)
+         */
+        public int start() {
+            return start;
+        }
+
+        /**
+         * Get the end of the problematic region
+         * @return The index in the message where the region ends (exclusive)
+         */
+        public int end() {
+            return end;
+        }
+
+        /**
+         * Get the description of the problem
+         * @return The description
+         */
+        public String message() {
+            return message;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Problem problem = (Problem) o;
+            return start == problem.start && end == problem.end && message.equals(problem.message);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * start + end) + message.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return start + "-" + end + ": " + message;
+        }
+    }
+}
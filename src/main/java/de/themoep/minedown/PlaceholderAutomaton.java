@@ -0,0 +1,222 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * An Aho-Corasick automaton that finds any of a set of placeholders in a single pass over a text.
+ * <p>
+ * The trie of all placeholders is turned into a complete transition table so that every character
+ * of the text costs one table lookup, independent of how many placeholders there are. Only characters
+ * that appear in a placeholder get their own column, all others lead back to the start.
+ * When the case is ignored the placeholders are stored lower case and the text's characters are
+ * lower cased one by one while scanning, the text itself never gets copied.
+ * <p>
+ * Automatons are immutable and can be shared between threads.
+ */
+final class PlaceholderAutomaton {
+
+    private final boolean ignoreCase;
+    private final Object[] values;
+    private final int[] lengths;
+
+    /**
+     * The column of every ASCII character and of the sorted other characters, column 0 is for
+     * characters that don't appear in any placeholder
+     */
+    private final int[] asciiColumns = new int[128];
+    private final char[] otherChars;
+    private final int[] otherColumns;
+    private final int columns;
+
+    /**
+     * The transition table, row is the state and column the character's column
+     */
+    private final int[] next;
+
+    /**
+     * The index of the longest placeholder that ends in a state or <tt>-1</tt> if none does
+     */
+    private final int[] output;
+
+    /**
+     * Compile an automaton
+     * @param placeholders  The placeholders, including their prefix and suffix
+     * @param values        The value of every placeholder
+     * @param ignoreCase    Whether or not to ignore the case of the placeholders
+     */
+    PlaceholderAutomaton(List<String> placeholders, List<?> values, boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+        this.values = values.toArray();
+        this.lengths = new int[placeholders.size()];
+
+        // Assign the columns
+        StringBuilder chars = new StringBuilder();
+        for (String placeholder : placeholders) {
+            for (int i = 0; i < placeholder.length(); i++) {
+                chars.append(lower(placeholder.charAt(i)));
+            }
+        }
+        char[] alphabet = chars.toString().toCharArray();
+        Arrays.sort(alphabet);
+        int distinct = 0;
+        int others = 0;
+        for (int i = 0; i < alphabet.length; i++) {
+            if (i == 0 || alphabet[i] != alphabet[i - 1]) {
+                alphabet[distinct++] = alphabet[i];
+                if (alphabet[i] >= 128) {
+                    others++;
+                }
+            }
+        }
+        alphabet = Arrays.copyOf(alphabet, distinct);
+        otherChars = new char[others];
+        otherColumns = new int[others];
+        int column = 1;
+        others = 0;
+        for (char c : alphabet) {
+            if (c < 128) {
+                asciiColumns[c] = column++;
+            } else {
+                otherChars[others] = c;
+                otherColumns[others++] = column++;
+            }
+        }
+        columns = column;
+
+        // Build the trie, 0 is the start and means "no transition" before the table is completed
+        List<int[]> rows = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        rows.add(new int[columns]);
+        terminal.add(-1);
+        for (int p = 0; p < placeholders.size(); p++) {
+            String placeholder = placeholders.get(p);
+            lengths[p] = placeholder.length();
+            int state = 0;
+            for (int i = 0; i < placeholder.length(); i++) {
+                int c = column(lower(placeholder.charAt(i)));
+                if (rows.get(state)[c] == 0) {
+                    rows.get(state)[c] = rows.size();
+                    rows.add(new int[columns]);
+                    terminal.add(-1);
+                }
+                state = rows.get(state)[c];
+            }
+            // Later placeholders replace earlier equal ones
+            terminal.set(state, p);
+        }
+
+        // Complete the table in breadth first order with the failure links
+        int states = rows.size();
+        next = new int[states * columns];
+        output = new int[states];
+        int[] fail = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+        output[0] = -1;
+        for (int c = 0; c < columns; c++) {
+            int target = rows.get(0)[c];
+            next[c] = target;
+            if (target != 0) {
+                queue.add(target);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            output[state] = terminal.get(state) != -1 ? terminal.get(state) : output[fail[state]];
+            int[] row = rows.get(state);
+            for (int c = 0; c < columns; c++) {
+                int target = row[c];
+                if (target != 0) {
+                    fail[target] = next[fail[state] * columns + c];
+                    next[state * columns + c] = target;
+                    queue.add(target);
+                } else {
+                    next[state * columns + c] = next[fail[state] * columns + c];
+                }
+            }
+        }
+    }
+
+    private char lower(char c) {
+        return ignoreCase ? Character.toLowerCase(c) : c;
+    }
+
+    private int column(char c) {
+        if (c < 128) {
+            return asciiColumns[c];
+        }
+        int i = Arrays.binarySearch(otherChars, c);
+        return i < 0 ? 0 : otherColumns[i];
+    }
+
+    /**
+     * Find the next placeholder in a region of a text
+     * @param text  The text to search in
+     * @param start The index to start searching at (inclusive)
+     * @param end   The index to stop searching at (exclusive)
+     * @return      The start index of the found placeholder in the upper and its index in the lower 32 bits
+     *              or <tt>-1</tt> if there is none
+     */
+    long find(CharSequence text, int start, int end) {
+        int state = 0;
+        for (int i = start; i < end; i++) {
+            state = next[state * columns + column(lower(text.charAt(i)))];
+            int placeholder = output[state];
+            if (placeholder != -1) {
+                return (long) (i + 1 - lengths[placeholder]) << 32 | placeholder;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the length of a placeholder
+     * @param placeholder   The index of the placeholder
+     * @return              The length including prefix and suffix
+     */
+    int length(int placeholder) {
+        return lengths[placeholder];
+    }
+
+    /**
+     * Get the value of a placeholder
+     * @param placeholder   The index of the placeholder
+     * @return              The value
+     */
+    Object value(int placeholder) {
+        return values[placeholder];
+    }
+
+    /**
+     * Get whether or not the automaton contains any placeholders
+     * @return <tt>true</tt> if there is nothing to replace
+     */
+    boolean isEmpty() {
+        return values.length == 0;
+    }
+}
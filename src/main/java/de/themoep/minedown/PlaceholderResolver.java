@@ -0,0 +1,74 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Computes placeholder values when they are needed instead of up front.
+ * <p>
+ * The resolver is only asked for the placeholders that a message actually contains and that don't have
+ * a value from the replacements already. Every placeholder is requested at most once per render, even if
+ * it appears multiple times in the message. Values that are {@link net.kyori.adventure.text.Component}s
+ * will get inserted as components, everything else is inserted as text.
+ */
+@FunctionalInterface
+public interface PlaceholderResolver {
+
+    /**
+     * Resolve the value of a single placeholder
+     * @param placeholder   The name of the placeholder without prefix and suffix, as it is written in the message
+     * @return              The value or <tt>null</tt> if the placeholder should stay as it is
+     */
+    Object resolve(String placeholder);
+
+    /**
+     * Resolve the values of all placeholders that a message needs at once.
+     * Override this if values can be looked up more efficiently together.
+     * @param placeholders  The names of the placeholders, each placeholder is only contained once
+     * @return              The values mapped by placeholder name, placeholders without a value can be missing
+     */
+    default Map<String, ?> resolveAll(Collection<String> placeholders) {
+        Map<String, Object> values = new HashMap<>();
+        for (String placeholder : placeholders) {
+            Object value = resolve(placeholder);
+            if (value != null) {
+                values.put(placeholder, value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Resolve the values of all placeholders that a message needs without blocking.
+     * Override this if values have to be loaded from somewhere, by default they are resolved directly.
+     * @param placeholders  The names of the placeholders, each placeholder is only contained once
+     * @return              A future that completes with the values mapped by placeholder name
+     */
+    default CompletableFuture<Map<String, ?>> resolveAllAsync(Collection<String> placeholders) {
+        return CompletableFuture.completedFuture(resolveAll(placeholders));
+    }
+}
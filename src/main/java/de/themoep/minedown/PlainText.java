@@ -0,0 +1,108 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+/**
+ * Finds messages that contain no markup so that they can skip the parser.
+ * <p>
+ * The check is a single loop over the characters with a table lookup per character, it doesn't
+ * parse anything. A message is plain if it contains no color char, no <tt>&sect;</tt>, <tt>[</tt>
+ * or <tt>\</tt> and none of the simple formatting characters twice in a row. That is more strict than
+ * what the parser would actually treat as markup, messages that aren't plain just get parsed normally.
+ */
+final class PlainText {
+
+    private static final byte ALWAYS = 1;
+    private static final byte DOUBLED = 2;
+
+    /**
+     * Whether or not a character can start markup on its own or only when it is doubled
+     */
+    private static final byte[] MARKUP = new byte[256];
+
+    static {
+        MARKUP[MineDownParser.LEGACY_COLOR_CHAR] = ALWAYS;
+        MARKUP['['] = ALWAYS;
+        MARKUP['\\'] = ALWAYS;
+        for (char c : "_*~?#".toCharArray()) {
+            MARKUP[c] = DOUBLED;
+        }
+    }
+
+    private PlainText() {}
+
+    /**
+     * Check whether or not a region of a message can skip the parser. The result is counted in the {@link MineDownMetrics}.
+     * @param settings  The settings the message would be parsed with
+     * @param message   The message
+     * @param start     The start of the region (inclusive)
+     * @param end       The end of the region (exclusive)
+     * @param urls      Whether or not a detected url would need to be parsed
+     * @return          <tt>true</tt> if the region contains no markup and no url that would be detected
+     */
+    static boolean isPlain(MineDownSettings settings, CharSequence message, int start, int end, boolean urls) {
+        if (start < 0 || end > message.length() || start > end) {
+            // Let the parser report the invalid region
+            return false;
+        }
+        boolean plain = !hasMarkup(message, start, end, settings.colorChar())
+                && !(urls && settings.urlDetection() && hasUrl(message, start, end));
+        MineDownMetrics.plainText(plain);
+        return plain;
+    }
+
+    private static boolean hasMarkup(CharSequence message, int start, int end, char colorChar) {
+        for (int i = start; i < end; i++) {
+            char c = message.charAt(i);
+            if (c == colorChar) {
+                return true;
+            }
+            if (c < MARKUP.length && MARKUP[c] != 0
+                    && (MARKUP[c] == ALWAYS || i + 1 < end && message.charAt(i + 1) == c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether or not the url detection of the parser would find an url in a region
+     */
+    private static boolean hasUrl(CharSequence message, int start, int end) {
+        int regionStart = start;
+        int regionEnd = start;
+        for (int i = start; i < end; i++) {
+            if (i > start && UrlScanner.isHostChar(message.charAt(i - 1))) {
+                continue;
+            }
+            if (i >= regionEnd) {
+                regionEnd = UrlScanner.regionEnd(message, i, end);
+                regionStart = UrlScanner.regionStart(message, i, regionEnd);
+            }
+            if (i >= regionStart && UrlScanner.isUrl(message, i, UrlScanner.urlEnd(message, i, regionEnd))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,410 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.Style;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces placeholders in strings and already built components.
+ * <p>
+ * All placeholders are compiled into a {@link PlaceholderAutomaton} the first time something gets
+ * replaced after the replacements changed, every text is then searched for all of them in a single pass.
+ * Replaced values are not searched again, so values can't contain placeholders that get replaced.
+ */
+public class Replacer {
+
+    /**
+     * The text replacements mapped placeholder to value
+     */
+    private final Map<String, String> replacements = new LinkedHashMap<>();
+
+    /**
+     * The component replacements mapped placeholder to value
+     */
+    private final Map<String, Component> componentReplacements = new LinkedHashMap<>();
+
+    /**
+     * The placeholder indicator's prefix character
+     */
+    private String placeholderPrefix = "%";
+
+    /**
+     * The placeholder indicator's suffix character
+     */
+    private String placeholderSuffix = "%";
+
+    /**
+     * Replace the placeholder no matter what the case of it is
+     */
+    private boolean ignorePlaceholderCase = true;
+
+    /**
+     * The compiled replacements, <tt>null</tt> if they changed since the last compilation
+     */
+    private PlaceholderAutomaton automaton = null;
+
+    /**
+     * Replace certain placeholders with values in string.
+     * This uses the % character as placeholder indicators (suffix and prefix)
+     * @param message       The string to replace in
+     * @param replacements  The replacements, nth element is the placeholder, n+1th the value
+     * @return              The string with all the placeholders replaced
+     */
+    public static String replaceIn(String message, String... replacements) {
+        return new Replacer().replace(replacements).replaceIn(message);
+    }
+
+    /**
+     * Replace certain placeholders with values in a component.
+     * This uses the % character as placeholder indicators (suffix and prefix)
+     * @param message       The component to replace in
+     * @param replacements  The replacements, nth element is the placeholder, n+1th the value
+     * @return              A copy of the component with all the placeholders replaced
+     */
+    public static Component replaceIn(Component message, String... replacements) {
+        return new Replacer().replace(replacements).replaceIn(message);
+    }
+
+    /**
+     * Add an array with placeholders and values that should get replaced in the message
+     * @param replacements  The replacements, nth element is the placeholder, n+1th the value
+     * @return              The Replacer instance
+     */
+    public Replacer replace(String... replacements) {
+        Util.validate(replacements.length % 2 == 0, "The replacement length has to be even, "
+                + "mapping i % 2 == 0 to the placeholder and i % 2 = 1 to the placeholder's value");
+        for (int i = 0; i + 1 < replacements.length; i += 2) {
+            replace(replacements[i], replacements[i + 1]);
+        }
+        return this;
+    }
+
+    /**
+     * Add a map with placeholders and values that should get replaced in the message.
+     * Values that are {@link Component}s will get inserted as components, everything else is inserted as text.
+     * @param replacements  The replacements mapped placeholder to value
+     * @return              The Replacer instance
+     */
+    public Replacer replace(Map<String, ?> replacements) {
+        if (replacements != null) {
+            for (Map.Entry<String, ?> entry : replacements.entrySet()) {
+                if (entry.getValue() instanceof Component) {
+                    replace(entry.getKey(), (Component) entry.getValue());
+                } else {
+                    replace(entry.getKey(), String.valueOf(entry.getValue()));
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add a placeholder to text mapping that should get replaced in the message
+     * @param placeholder   The placeholder to replace
+     * @param replacement   The replacement text
+     * @return              The Replacer instance
+     */
+    public Replacer replace(String placeholder, String replacement) {
+        componentReplacements.remove(placeholder);
+        replacements.put(placeholder, replacement);
+        automaton = null;
+        return this;
+    }
+
+    /**
+     * Add a placeholder to component mapping that should get replaced in the message
+     * @param placeholder   The placeholder to replace
+     * @param replacement   The replacement component
+     * @return              The Replacer instance
+     */
+    public Replacer replace(String placeholder, Component replacement) {
+        replacements.remove(placeholder);
+        componentReplacements.put(placeholder, replacement);
+        automaton = null;
+        return this;
+    }
+
+    /**
+     * Set the placeholder indicator for both prefix and suffix
+     * @param placeholderIndicator  The character to use as a placeholder indicator
+     * @return                      The Replacer instance
+     */
+    public Replacer placeholderIndicator(String placeholderIndicator) {
+        placeholderPrefix(placeholderIndicator);
+        placeholderSuffix(placeholderIndicator);
+        return this;
+    }
+
+    /**
+     * Replace the placeholders in a string
+     * @param string    The string to replace in
+     * @return          The string with all text placeholders replaced,
+     *                  component placeholders are left as they are
+     */
+    public String replaceIn(String string) {
+        PlaceholderAutomaton automaton = automaton();
+        if (automaton.isEmpty()) {
+            return string;
+        }
+        StringBuilder replaced = null;
+        int last = 0;
+        int i = 0;
+        long match;
+        while ((match = automaton.find(string, i, string.length())) != -1) {
+            int start = (int) (match >>> 32);
+            int placeholder = (int) match;
+            i = start + automaton.length(placeholder);
+            Object value = automaton.value(placeholder);
+            if (value instanceof String) {
+                if (replaced == null) {
+                    replaced = new StringBuilder(string.length() + 16);
+                }
+                replaced.append(string, last, start).append((String) value);
+                last = i;
+            }
+        }
+        if (replaced == null) {
+            return string;
+        }
+        return replaced.append(string, last, string.length()).toString();
+    }
+
+    /**
+     * Replace the placeholders in a component, its children and its events
+     * @param component The component to replace in
+     * @return          A copy of the component with all placeholders replaced
+     */
+    public Component replaceIn(Component component) {
+        if (automaton().isEmpty()) {
+            return component;
+        }
+        Style style = replaceIn(component.style());
+
+        List<Component> children = new ArrayList<>();
+        if (component instanceof TextComponent) {
+            String content = ((TextComponent) component).content();
+            List<Component> inserted = new ArrayList<>();
+            String first = replaceIn(content, inserted);
+            component = ((TextComponent) component).content(first);
+            children.addAll(inserted);
+        }
+        for (Component child : component.children()) {
+            children.add(replaceIn(child));
+        }
+        return component.style(style).children(children);
+    }
+
+    /**
+     * Replace the placeholders in a text that can contain component placeholders
+     * @param string    The text to replace in
+     * @param inserted  The list to add the components that follow the returned text to
+     * @return          The text before the first replaced component
+     */
+    private String replaceIn(String string, List<Component> inserted) {
+        PlaceholderAutomaton automaton = automaton();
+        StringBuilder text = new StringBuilder(string.length());
+        String first = null;
+        int last = 0;
+        int i = 0;
+        long match;
+        while ((match = automaton.find(string, i, string.length())) != -1) {
+            int start = (int) (match >>> 32);
+            int placeholder = (int) match;
+            i = start + automaton.length(placeholder);
+            text.append(string, last, start);
+            last = i;
+            Object value = automaton.value(placeholder);
+            if (value instanceof Component) {
+                if (first == null) {
+                    first = text.toString();
+                } else if (text.length() > 0) {
+                    inserted.add(Component.text(text.toString()));
+                }
+                text.setLength(0);
+                inserted.add((Component) value);
+            } else {
+                text.append((String) value);
+            }
+        }
+        text.append(string, last, string.length());
+        if (first == null) {
+            return text.toString();
+        }
+        if (text.length() > 0) {
+            inserted.add(Component.text(text.toString()));
+        }
+        return first;
+    }
+
+    private Style replaceIn(Style style) {
+        Style.Builder builder = null;
+        ClickEvent clickEvent = style.clickEvent();
+        if (clickEvent != null) {
+            String value = replaceIn(clickEvent.value());
+            if (!value.equals(clickEvent.value())) {
+                builder = style.toBuilder().clickEvent(ClickEvent.of(clickEvent.action(), value));
+            }
+        }
+        HoverEvent<?> hoverEvent = style.hoverEvent();
+        if (hoverEvent != null && hoverEvent.action() == HoverEvent.Action.SHOW_TEXT) {
+            builder = (builder != null ? builder : style.toBuilder())
+                    .hoverEvent(HoverEvent.of(HoverEvent.Action.SHOW_TEXT, replaceIn((Component) hoverEvent.value())));
+        }
+        if (style.insertion() != null) {
+            builder = (builder != null ? builder : style.toBuilder()).insertion(replaceIn(style.insertion()));
+        }
+        return builder != null ? builder.build() : style;
+    }
+
+    /**
+     * Get the compiled replacements, compiles them if they changed
+     * @return The automaton of all placeholders
+     */
+    private PlaceholderAutomaton automaton() {
+        if (automaton == null) {
+            List<String> placeholders = new ArrayList<>();
+            List<Object> values = new ArrayList<>();
+            for (Map.Entry<String, String> entry : replacements.entrySet()) {
+                placeholders.add(placeholderPrefix + entry.getKey() + placeholderSuffix);
+                values.add(entry.getValue());
+            }
+            for (Map.Entry<String, Component> entry : componentReplacements.entrySet()) {
+                placeholders.add(placeholderPrefix + entry.getKey() + placeholderSuffix);
+                values.add(entry.getValue());
+            }
+            automaton = new PlaceholderAutomaton(placeholders, values, ignorePlaceholderCase);
+        }
+        return automaton;
+    }
+
+    /**
+     * Create a copy of this Replacer
+     * @return A copy of this Replacer
+     */
+    public Replacer copy() {
+        return new Replacer().copy(this);
+    }
+
+    /**
+     * Copy all the values of another Replacer
+     * @param from  The replacer to copy
+     * @return      The Replacer instance
+     */
+    public Replacer copy(Replacer from) {
+        replacements.clear();
+        replacements.putAll(from.replacements);
+        componentReplacements.clear();
+        componentReplacements.putAll(from.componentReplacements);
+        placeholderPrefix = from.placeholderPrefix;
+        placeholderSuffix = from.placeholderSuffix;
+        ignorePlaceholderCase = from.ignorePlaceholderCase;
+        // The automaton is immutable and can be shared
+        automaton = from.automaton;
+        return this;
+    }
+
+    /**
+     * Get the text replacements
+     * @return An unmodifiable view of the text replacements mapped placeholder to value
+     */
+    public Map<String, String> replacements() {
+        return Collections.unmodifiableMap(replacements);
+    }
+
+    /**
+     * Get the component replacements
+     * @return An unmodifiable view of the component replacements mapped placeholder to value
+     */
+    public Map<String, Component> componentReplacements() {
+        return Collections.unmodifiableMap(componentReplacements);
+    }
+
+    /**
+     * Get the placeholder indicator's prefix string
+     * @return The prefix characters
+     */
+    public String placeholderPrefix() {
+        return placeholderPrefix;
+    }
+
+    /**
+     * Set the placeholder indicator's prefix string
+     * @param placeholderPrefix The prefix characters
+     * @return                  The instance of this Replacer
+     */
+    public Replacer placeholderPrefix(String placeholderPrefix) {
+        Util.validate(placeholderPrefix != null && !placeholderPrefix.isEmpty(), "Placeholder prefix can't be empty!");
+        this.placeholderPrefix = placeholderPrefix;
+        automaton = null;
+        return this;
+    }
+
+    /**
+     * Get the placeholder indicator's suffix string
+     * @return The suffix characters
+     */
+    public String placeholderSuffix() {
+        return placeholderSuffix;
+    }
+
+    /**
+     * Set the placeholder indicator's suffix string
+     * @param placeholderSuffix The suffix characters
+     * @return                  The instance of this Replacer
+     */
+    public Replacer placeholderSuffix(String placeholderSuffix) {
+        Util.validate(placeholderSuffix != null && !placeholderSuffix.isEmpty(), "Placeholder suffix can't be empty!");
+        this.placeholderSuffix = placeholderSuffix;
+        automaton = null;
+        return this;
+    }
+
+    /**
+     * Get whether or not the case of the placeholder should be ignored when replacing
+     * @return Whether or not to ignore the case of the placeholders (Default: true)
+     */
+    public boolean ignorePlaceholderCase() {
+        return ignorePlaceholderCase;
+    }
+
+    /**
+     * Set whether or not the case of the placeholder should be ignored when replacing
+     * @param ignorePlaceholderCase Whether or not to ignore the case of the placeholders
+     * @return                      The instance of this Replacer
+     */
+    public Replacer ignorePlaceholderCase(boolean ignorePlaceholderCase) {
+        this.ignorePlaceholderCase = ignorePlaceholderCase;
+        automaton = null;
+        return this;
+    }
+}
@@ -0,0 +1,175 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+
+import java.util.Arrays;
+
+/**
+ * Finds the points in a message at which it can be split into segments that can be parsed on their own.
+ * <p>
+ * The message is run through the {@link MineDownTokenizer} so that events, simple formatting and escaping
+ * are found with the same {@link MessageIndex} that the parser uses. A message can be split after a line break,
+ * or optionally a space, that is in the text outside of all of them. If the text may still change after a point
+ * then an earlier <tt>[</tt> or doubled formatting character that isn't closed yet might get closed later,
+ * so the text is not split after such a character at all.
+ */
+final class SegmentScanner implements TokenHandler {
+
+    private static final String FORMAT_CHARS = "*#_~?";
+
+    private final MineDownSettings settings;
+    private final CharSequence text;
+    private final boolean splitAtSpaces;
+
+    /**
+     * The start of the tokenized region and the index after the last returned segment
+     */
+    private int start;
+    private int position;
+
+    /**
+     * The segment ends that were found the last time the text was tokenized
+     */
+    private int[] ends = new int[16];
+    private int endCount = 0;
+    private int scannedEnd = -1;
+    private boolean scannedComplete;
+
+    /**
+     * The state while tokenizing
+     */
+    private MineDownTokenizer tokenizer;
+    private int depth;
+    private boolean open;
+
+    /**
+     * Create a new scanner
+     * @param settings      The settings that the segments get parsed with
+     * @param text          The text to scan, it may grow while it is scanned
+     * @param splitAtSpaces Whether or not to also split at spaces instead of only at line breaks
+     */
+    SegmentScanner(MineDownSettings settings, CharSequence text, boolean splitAtSpaces) {
+        this.settings = settings;
+        this.text = text;
+        this.splitAtSpaces = splitAtSpaces;
+    }
+
+    /**
+     * Get the end of the next segment
+     * @param end       The end of the currently available text
+     * @param complete  Whether or not the text up to the end is final. If it isn't, or if the segments before
+     *                  an edit should stay valid when the text after them changes, then the text isn't split
+     *                  after characters that could start a construct once more text is there.
+     * @return          The end of the segment (exclusive) or <tt>-1</tt> if no segment ends in the available text
+     */
+    int next(int end, boolean complete) {
+        if (end != scannedEnd || complete != scannedComplete) {
+            scan(end, complete);
+        }
+        for (int i = 0; i < endCount; i++) {
+            if (ends[i] > position) {
+                position = ends[i];
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Continue scanning at a certain index with all constructs closed
+     * @param position The index to continue at
+     */
+    void reset(int position) {
+        this.start = position;
+        this.position = position;
+        scannedEnd = -1;
+        endCount = 0;
+    }
+
+    /**
+     * Tokenize the text from the start and remember all segment ends
+     * @param end       The end of the text
+     * @param complete  Whether or not the text is final
+     */
+    private void scan(int end, boolean complete) {
+        scannedEnd = end;
+        scannedComplete = complete;
+        endCount = 0;
+        depth = 0;
+        open = false;
+        tokenizer = new MineDownTokenizer(settings, text, start, end, this);
+        tokenizer.tokenize();
+        tokenizer = null;
+    }
+
+    @Override
+    public void text(CharSequence message, int start, int end) {
+        if (depth > 0 || open) {
+            return;
+        }
+        for (int i = start; i < end; i++) {
+            char c = message.charAt(i);
+            if (c == '\n' || splitAtSpaces && c == ' ') {
+                if (endCount == ends.length) {
+                    ends = Arrays.copyOf(ends, endCount * 2);
+                }
+                ends[endCount++] = i + 1;
+            } else if (!scannedComplete && (c == '[' || FORMAT_CHARS.indexOf(c) != -1 && i + 1 < end && message.charAt(i + 1) == c)
+                    && !tokenizer.index().isEscaped(i)) {
+                // Not a construct yet but it might get closed later
+                open = true;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void color(TextColor color) {}
+
+    @Override
+    public void decoration(TextDecoration decoration) {}
+
+    @Override
+    public void reset() {}
+
+    @Override
+    public void url(CharSequence message, int start, int end) {}
+
+    @Override
+    public void push(TextDecoration decoration) {
+        depth++;
+    }
+
+    @Override
+    public void pushEvent(CharSequence message, int definitionStart, int definitionEnd) {
+        depth++;
+    }
+
+    @Override
+    public void pop() {
+        depth--;
+    }
+}
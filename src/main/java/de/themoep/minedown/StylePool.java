@@ -0,0 +1,188 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.Style;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of canonical instances of the immutable style objects that the parser creates.
+ * <p>
+ * The parser creates a new {@link Style}, color and font {@link net.kyori.adventure.key.Key} for every
+ * part of a message. Interning them lets all parsed components with an equal style share one instance,
+ * which keeps cached component trees small. The click events and show_text hover events of styles are
+ * interned too, other hover events are kept as they are.
+ * <p>
+ * The pool is bounded, once it is full new values are returned as they are without being pooled.
+ * It can be shared between threads. The parser only interns styles when a {@link #global(StylePool) global}
+ * pool is set, there is none by default.
+ */
+public final class StylePool {
+
+    private static volatile StylePool global = null;
+
+    private final int maximumSize;
+    private final ConcurrentMap<Object, Object> pool = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+
+    /**
+     * Create a new pool
+     * @param maximumSize The maximum amount of instances to pool
+     */
+    public StylePool(int maximumSize) {
+        Util.validate(maximumSize > 0, "Maximum size has to be positive!");
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Get the pool that the parser uses
+     * @return The global pool or <tt>null</tt> if styles aren't interned (the default)
+     */
+    public static StylePool global() {
+        return global;
+    }
+
+    /**
+     * Set the pool that the parser should use
+     * @param pool The pool to use or <tt>null</tt> to not intern styles
+     */
+    public static void global(StylePool pool) {
+        global = pool;
+    }
+
+    /**
+     * Get the canonical instance of an immutable value
+     * @param value The value
+     * @param <T>   The type of the value
+     * @return      The pooled instance that is equal to the value, the value itself if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T intern(T value) {
+        if (value == null) {
+            return null;
+        }
+        requests.increment();
+        Object pooled = pool.get(value);
+        if (pooled == null) {
+            if (pool.size() >= maximumSize) {
+                return value;
+            }
+            pooled = pool.putIfAbsent(value, value);
+            if (pooled == null) {
+                return value;
+            }
+        }
+        if (pooled.getClass() != value.getClass()) {
+            return value;
+        }
+        deduplicated.increment();
+        return (T) pooled;
+    }
+
+    /**
+     * Get the canonical instance of a style. If the style isn't pooled yet then its click event and
+     * show_text hover event are interned first so that styles which only differ in their formatting
+     * share equal events, e.g. all the urls that have the same hover text.
+     * @param style The style
+     * @return      The pooled style that is equal to the style, the style itself if there is none
+     */
+    Style internStyle(Style style) {
+        ClickEvent clickEvent = style.clickEvent();
+        HoverEvent<?> hoverEvent = style.hoverEvent();
+        if (clickEvent == null && hoverEvent == null || pool.containsKey(style)) {
+            return intern(style);
+        }
+        ClickEvent pooledClickEvent = intern(clickEvent);
+        HoverEvent<?> pooledHoverEvent = hoverEvent != null && hoverEvent.action() == HoverEvent.Action.SHOW_TEXT
+                ? intern(hoverEvent) : hoverEvent;
+        if (pooledClickEvent != clickEvent || pooledHoverEvent != hoverEvent) {
+            style = style.toBuilder().clickEvent(pooledClickEvent).hoverEvent(pooledHoverEvent).build();
+        }
+        return intern(style);
+    }
+
+    /**
+     * Remove all pooled instances. The counters are not reset.
+     */
+    public void clear() {
+        pool.clear();
+    }
+
+    /**
+     * Get the maximum amount of instances that this pool holds
+     * @return The maximum size
+     */
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Get the amount of instances that are currently pooled
+     * @return The amount of pooled instances
+     */
+    public int size() {
+        return pool.size();
+    }
+
+    /**
+     * Get how often a value was interned
+     * @return The amount of intern requests
+     */
+    public long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * Get how often an already pooled instance was returned instead of the value
+     * @return The amount of deduplicated values
+     */
+    public long deduplicated() {
+        return deduplicated.sum();
+    }
+
+    /**
+     * Get the share of interned values that were replaced with an already pooled instance
+     * @return The dedupe ratio between 0 and 1
+     */
+    public double dedupeRatio() {
+        long requests = requests();
+        return requests > 0 ? (double) deduplicated() / requests : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "StylePool{" +
+                "size=" + size() +
+                ", maximumSize=" + maximumSize +
+                ", requests=" + requests() +
+                ", deduplicated=" + deduplicated() +
+                '}';
+    }
+}
@@ -0,0 +1,85 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+
+/**
+ * Receives the tokens that the {@link MineDownTokenizer} finds in a message.
+ * All ranges are indices into the original message, nothing gets copied by the tokenizer.
+ */
+interface TokenHandler {
+
+    /**
+     * Literal text
+     * @param message   The message that is tokenized
+     * @param start     The start index of the text (inclusive)
+     * @param end       The end index of the text (exclusive)
+     */
+    void text(CharSequence message, int start, int end);
+
+    /**
+     * A color code that sets a new color and resets the formatting
+     * @param color The color
+     */
+    void color(TextColor color);
+
+    /**
+     * A legacy formatting code that adds a decoration
+     * @param decoration    The decoration
+     */
+    void decoration(TextDecoration decoration);
+
+    /**
+     * A reset code that removes the color and all formatting
+     */
+    void reset();
+
+    /**
+     * A detected url
+     * @param message   The message that is tokenized
+     * @param start     The start index of the url (inclusive)
+     * @param end       The end index of the url (exclusive)
+     */
+    void url(CharSequence message, int start, int end);
+
+    /**
+     * Start of a nested part with simple formatting which inherits the current style
+     * @param decoration    The decoration to add or <tt>null</tt> if it was filtered
+     */
+    void push(TextDecoration decoration);
+
+    /**
+     * Start of the text of an event which gets its style from the event definitions
+     * @param message           The message that is tokenized
+     * @param definitionStart   The start index of the definitions (inclusive)
+     * @param definitionEnd     The end index of the definitions (exclusive)
+     */
+    void pushEvent(CharSequence message, int definitionStart, int definitionEnd);
+
+    /**
+     * End of the last started nested part
+     */
+    void pop();
+}
@@ -0,0 +1,192 @@
+package de.themoep.minedown;
+
+/*
+ * Copyright (c) 2017 Max Lee (https://github.com/Phoenix616)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+/**
+ * Recognizes the urls that {@link MineDownParser#URL_PATTERN} describes without using a regex.
+ * <p>
+ * An url is an optional <tt>http://</tt> or <tt>https://</tt> scheme, a host consisting of letters,
+ * digits, <tt>-</tt>, <tt>_</tt> and <tt>.</tt> that ends in a lower case top level domain and an
+ * optional path starting with <tt>/</tt> that contains no whitespace.
+ */
+final class UrlScanner {
+
+    /**
+     * The max length of a top level domain, the max length of a DNS label
+     */
+    static final int MAX_TLD_LENGTH = 63;
+
+    private UrlScanner() {}
+
+    /**
+     * Check whether or not a whole string is an url
+     * @param string    The string to check
+     * @return          Whether or not the string is an url
+     */
+    static boolean isUrl(CharSequence string) {
+        return isUrl(string, 0, string.length());
+    }
+
+    /**
+     * Check whether or not a region of a string is exactly one url
+     * @param string    The string to check
+     * @param start     The start of the region (inclusive)
+     * @param end       The end of the region (exclusive)
+     * @return          Whether or not the region is an url
+     */
+    static boolean isUrl(CharSequence string, int start, int end) {
+        int i = skipScheme(string, start, end);
+
+        // Host, remember the last dot as that's where the top level domain starts
+        int hostStart = i;
+        int lastDot = -1;
+        while (i < end) {
+            char c = string.charAt(i);
+            if (c == '.') {
+                lastDot = i;
+            } else if (!isHostChar(c)) {
+                break;
+            }
+            i++;
+        }
+        // There need to be at least two chars in front of the top level domain
+        if (lastDot < hostStart + 2) {
+            return false;
+        }
+        int tldLength = i - lastDot - 1;
+        if (tldLength < 2 || tldLength > MAX_TLD_LENGTH) {
+            return false;
+        }
+        for (int j = lastDot + 1; j < i; j++) {
+            char c = string.charAt(j);
+            if (c < 'a' || c > 'z') {
+                return false;
+            }
+        }
+
+        // Path
+        if (i < end) {
+            if (string.charAt(i) != '/') {
+                return false;
+            }
+            for (i++; i < end; i++) {
+                if (Character.isWhitespace(string.charAt(i))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether or not a character can be part of an url's host
+     * @param c The character
+     * @return  Whether or not it is a letter, digit, <tt>-</tt>, <tt>_</tt> or <tt>.</tt>
+     */
+    static boolean isHostChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.';
+    }
+
+    /**
+     * Get the end of the region that an url starting at an index would need to fill, urls always end at the next space
+     * @param string    The string
+     * @param start     The index at which the url would start
+     * @param end       The end of the part of the string that is scanned (exclusive)
+     * @return          The index of the next space or the end
+     */
+    static int regionEnd(CharSequence string, int start, int end) {
+        int regionEnd = start;
+        while (regionEnd < end && string.charAt(regionEnd) != ' ') {
+            regionEnd++;
+        }
+        return regionEnd;
+    }
+
+    /**
+     * Get the first index in a region at which an url can start. As urls can't contain any whitespace
+     * only the part after the last other whitespace char in front of the region's end can be an url.
+     * @param string    The string
+     * @param start     The start of the region (inclusive)
+     * @param regionEnd The end of the region as returned by {@link #regionEnd(CharSequence, int, int)}
+     * @return          The index after the last whitespace char or the start
+     */
+    static int regionStart(CharSequence string, int start, int regionEnd) {
+        for (int i = regionEnd - 1; i >= start; i--) {
+            if (Character.isWhitespace(string.charAt(i))) {
+                return i + 1;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Get the end of an url that starts at an index. Sentence punctuation at the end of an url without
+     * a path, like in <tt>Visit example.com!</tt>, isn't part of it. Urls with a path keep it as it
+     * can't be told apart from the path's last chars.
+     * @param string    The string
+     * @param start     The index at which the url starts
+     * @param regionEnd The end of the region as returned by {@link #regionEnd(CharSequence, int, int)}
+     * @return          The end of the url (exclusive)
+     */
+    static int urlEnd(CharSequence string, int start, int regionEnd) {
+        int end = regionEnd;
+        while (end > start && isSentencePunctuation(string.charAt(end - 1))) {
+            end--;
+        }
+        if (end == regionEnd) {
+            return regionEnd;
+        }
+        for (int i = skipScheme(string, start, end); i < end; i++) {
+            if (string.charAt(i) == '/') {
+                return regionEnd;
+            }
+        }
+        return end;
+    }
+
+    private static boolean isSentencePunctuation(char c) {
+        return c == '.' || c == ',' || c == ';' || c == ':' || c == '!' || c == '?';
+    }
+
+    private static int skipScheme(CharSequence string, int start, int end) {
+        if (startsWith(string, start, end, "https://")) {
+            return start + 8;
+        } else if (startsWith(string, start, end, "http://")) {
+            return start + 7;
+        }
+        return start;
+    }
+
+    private static boolean startsWith(CharSequence string, int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (string.charAt(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
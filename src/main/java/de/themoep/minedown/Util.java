@@ -22,6 +22,8 @@ package de.themoep.minedown;
  * SOFTWARE.
  */
 
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
 
 import java.awt.Color;
 import java.util.ArrayList;
@@ -102,6 +104,24 @@ public class Util {
         return e % 2 != 0;
     }
 
+    /**
+     * Get the color of a legacy color code
+     * @param code  The character of the code in any case
+     * @return      The color or <tt>null</tt> if the code isn't a color
+     */
+    public static TextColor getLegacyColor(char code) {
+        return ColorResolver.legacyColor(code);
+    }
+
+    /**
+     * Get the decoration of a legacy formatting code
+     * @param code  The character of the code in any case
+     * @return      The decoration or <tt>null</tt> if the code isn't a formatting code
+     */
+    public static TextDecoration getLegacyDecoration(char code) {
+        return ColorResolver.legacyDecoration(code);
+    }
+
     /**
      * Wrap a string if it is longer than the line length and contains no new line.
      * Will try to wrap at spaces between words.
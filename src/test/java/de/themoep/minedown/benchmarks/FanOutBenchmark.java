@@ -0,0 +1,79 @@
+package de.themoep.minedown.benchmarks;
+
+import de.themoep.minedown.MineDown;
+import de.themoep.minedown.MineDownTemplate;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing a broadcast for every recipient with rendering one template for all of them.
+ * The {@link GCProfiler} reports the allocated memory of both.
+ * Run with <tt>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.themoep.minedown.benchmarks.FanOutBenchmark</tt>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FanOutBenchmark {
+
+    private static final String MESSAGE = "&6[&eServer&6] %rank% %name%&7 joined &e%server%&7! "
+            + "[**Rules**](/rules hover=Read the rules of %server%) [__Discord__](https://example.com/discord)";
+
+    @Param({"500"})
+    public int recipients;
+
+    private final List<Map<String, String>> bindings = new ArrayList<>();
+    private final Map<String, String> shared = new HashMap<>();
+
+    @Setup
+    public void setup() {
+        shared.put("server", "Minebench");
+        for (int i = 0; i < recipients; i++) {
+            Map<String, String> binding = new HashMap<>();
+            binding.put("name", "Player" + i);
+            binding.put("rank", i % 10 == 0 ? "VIP" : "Member");
+            bindings.add(binding);
+        }
+    }
+
+    @Benchmark
+    public void parseEach(Blackhole blackhole) {
+        for (Map<String, String> binding : bindings) {
+            blackhole.consume(new MineDown(MESSAGE).replace(shared).replace(binding).toComponent());
+        }
+    }
+
+    @Benchmark
+    public void renderAll(Blackhole blackhole) {
+        MineDownTemplate template = MineDown.compile(MESSAGE).bind(shared);
+        template.renderAll(bindings.stream()).forEach(blackhole::consume);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FanOutBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,63 @@
+package de.themoep.minedown.benchmarks;
+
+import de.themoep.minedown.MineDownSettings;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing to components with writing the json chat format directly while parsing.
+ * Run with <tt>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.themoep.minedown.benchmarks.JsonBenchmark</tt>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonBenchmark {
+
+    @Param({
+            "&6Hey everyone, the event starts in five minutes at the spawn, don't be late!",
+            "&6[&eServer&6] &7Player &e**joined** &7the game. &6Welcome back!",
+            "&b[**Rules** __and__ ~~more~~ info](https://example.com/rules Read them!) - check them out",
+    })
+    public String message;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+    @Benchmark
+    public Component components() {
+        return MineDownSettings.DEFAULT.parse(message);
+    }
+
+    @Benchmark
+    public String json() {
+        return MineDownSettings.DEFAULT.toJson(message);
+    }
+
+    @Benchmark
+    public int jsonBuffer() {
+        buffer.clear();
+        MineDownSettings.DEFAULT.writeJson(message, buffer);
+        return buffer.position();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JsonBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
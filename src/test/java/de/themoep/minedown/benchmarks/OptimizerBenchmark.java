@@ -0,0 +1,72 @@
+package de.themoep.minedown.benchmarks;
+
+import de.themoep.minedown.ComponentOptimizer;
+import de.themoep.minedown.MineDownSettings;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of optimizing parsed components and prints how many components it saves.
+ * Run with <tt>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.themoep.minedown.benchmarks.OptimizerBenchmark</tt>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OptimizerBenchmark {
+
+    private static final String[] MESSAGES = {
+            "&6Hey everyone, the event starts in five minutes at the spawn, don't be late!",
+            "&6[&eServer&6] &7Player &e**joined** &7the game. &6Welcome &6back&6!",
+            "&b[**Rules** __and__ ~~more~~ info](https://example.com/rules Read them!) &b- &bcheck &bthem &bout",
+    };
+
+    @Param({"0", "1", "2"})
+    public int message;
+
+    private MineDownSettings unoptimized;
+    private MineDownSettings optimized;
+
+    @Setup
+    public void setup() {
+        unoptimized = MineDownSettings.builder().optimize(false).build();
+        optimized = MineDownSettings.builder().optimize(true).build();
+    }
+
+    @Benchmark
+    public Component unoptimized() {
+        return unoptimized.parse(MESSAGES[message]);
+    }
+
+    @Benchmark
+    public Component optimized() {
+        return optimized.parse(MESSAGES[message]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        MineDownSettings unoptimized = MineDownSettings.builder().optimize(false).build();
+        for (String message : MESSAGES) {
+            Component component = unoptimized.parse(message);
+            System.out.println(message + "\n  nodes: " + ComponentOptimizer.countNodes(component)
+                    + " -> " + ComponentOptimizer.countNodes(ComponentOptimizer.optimize(component)));
+        }
+        new Runner(new OptionsBuilder()
+                .include(OptimizerBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
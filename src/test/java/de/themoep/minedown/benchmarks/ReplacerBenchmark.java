@@ -0,0 +1,73 @@
+package de.themoep.minedown.benchmarks;
+
+import de.themoep.minedown.Replacer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares replacing all placeholders in one pass with replacing every placeholder on its own.
+ * Run with <tt>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.themoep.minedown.benchmarks.ReplacerBenchmark</tt>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ReplacerBenchmark {
+
+    @Param({"10", "40", "80"})
+    public int placeholders;
+
+    private final Map<String, String> replacements = new LinkedHashMap<>();
+    private final Replacer replacer = new Replacer();
+    private String message;
+
+    @Setup
+    public void setup() {
+        StringBuilder message = new StringBuilder("&6Stats of %player_name%: ");
+        for (int i = 0; i < placeholders; i++) {
+            replacements.put("stat_" + i, String.valueOf(i * 7));
+            if (i % 4 == 0) {
+                message.append("stat ").append(i).append(" is %stat_").append(i).append("%, ");
+            }
+        }
+        replacements.put("player_name", "Phoenix616");
+        this.message = message.append("100% done!").toString();
+        replacer.ignorePlaceholderCase(false).replace(replacements);
+    }
+
+    @Benchmark
+    public String automaton() {
+        return replacer.replaceIn(message);
+    }
+
+    @Benchmark
+    public String perPlaceholder() {
+        String replaced = message;
+        for (Map.Entry<String, String> entry : replacements.entrySet()) {
+            replaced = replaced.replace("%" + entry.getKey() + "%", entry.getValue());
+        }
+        return replaced;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ReplacerBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
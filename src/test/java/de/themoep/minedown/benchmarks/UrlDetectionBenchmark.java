@@ -0,0 +1,76 @@
+package de.themoep.minedown.benchmarks;
+
+import de.themoep.minedown.MineDownParser;
+import de.themoep.minedown.MineDownSettings;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+
+/**
+ * Compares the url detection of the regex region matching that the parser used before
+ * with the parser's scanner that only checks at the start of words. The scanner's cost is
+ * the difference between parsing with and without url detection.
+ * Run with <tt>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.themoep.minedown.benchmarks.UrlDetectionBenchmark</tt>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UrlDetectionBenchmark {
+
+    private static final MineDownSettings WITHOUT_URLS = MineDownSettings.builder().urlDetection(false).build();
+
+    @Param({
+            "Hey everyone, the event starts in five minutes at the spawn, don't be late!",
+            "Check out https://example.com/wiki/rules?page=2 and example.minecraft for more info",
+            "lolololololololololololololololololololololololololololololololololololololol",
+    })
+    public String message;
+
+    @Benchmark
+    public int regex() {
+        int found = 0;
+        Matcher matcher = MineDownParser.URL_PATTERN.matcher(message);
+        for (int i = 0; i < message.length(); i++) {
+            int urlEnd = message.indexOf(' ', i);
+            if (urlEnd == -1) {
+                urlEnd = message.length();
+            }
+            if (matcher.region(i, urlEnd).find()) {
+                found++;
+                i = urlEnd - 1;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public Component parse() {
+        return MineDownSettings.DEFAULT.parse(message);
+    }
+
+    @Benchmark
+    public Component parseWithoutUrls() {
+        return WITHOUT_URLS.parse(message);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UrlDetectionBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,72 @@
+package de.themoep.minedown.tests;
+
+import de.themoep.minedown.MineDown;
+import de.themoep.minedown.MineDownParser;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class AsyncTest {
+
+    @Test
+    public void testParseAsync() {
+        System.out.println("testParseAsync");
+        String message = "&6Test __%placeholder%__&r [event](/command %placeholder%) =D";
+        Assertions.assertEquals(
+                MineDown.parse(message, "placeholder", "value"),
+                MineDown.parseAsync(message, "placeholder", "value").join()
+        );
+    }
+
+    @Test
+    public void testToComponentAsync() {
+        System.out.println("testToComponentAsync");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            MineDown mineDown = new MineDown("&6Test __%placeholder%__ **bold**").replace("placeholder", "value");
+            Component expected = mineDown.copy().toComponent();
+            CompletableFuture<Component> future = mineDown.toComponentAsync(executor);
+            // Changes after the call don't affect the already started parsing
+            mineDown.replace("placeholder", "other");
+            Assertions.assertEquals(expected, future.join());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testFormattingSnapshot() {
+        System.out.println("testFormattingSnapshot");
+        MineDown expected = new MineDown("Test **bold**");
+        expected.parser().copy(new GoldParser(), true);
+        MineDown mineDown = new MineDown("Test **bold**");
+        mineDown.parser().copy(new GoldParser(), true);
+        Component component = expected.toComponent();
+        Assertions.assertEquals(NamedTextColor.GOLD, component.children().get(0).style().color());
+        Assertions.assertEquals(component, mineDown.toComponentAsync(Runnable::run).join());
+    }
+
+    @Test
+    public void testAlreadyParsed() {
+        System.out.println("testAlreadyParsed");
+        MineDown mineDown = new MineDown("&6Test **bold**");
+        Component component = mineDown.toComponent();
+        CompletableFuture<Component> future = mineDown.toComponentAsync(Runnable::run);
+        Assertions.assertTrue(future.isDone());
+        Assertions.assertSame(component, future.join());
+    }
+
+    /**
+     * A parser that starts with a color, the formatting can only be set by subclasses
+     */
+    private static class GoldParser extends MineDownParser {
+        private GoldParser() {
+            color(NamedTextColor.GOLD);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package de.themoep.minedown.tests;
+
+import de.themoep.minedown.BatchResult;
+import de.themoep.minedown.MineDown;
+import de.themoep.minedown.MineDownSettings;
+import de.themoep.minedown.MineDownStringifier;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class BatchTest {
+
+    private static List<String> messages(int count) {
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            messages.add("&6Message " + i + " **bold** [event " + i + "](/command " + i + ")");
+        }
+        return messages;
+    }
+
+    @Test
+    public void testParseAll() {
+        System.out.println("testParseAll");
+        List<String> messages = messages(100);
+        List<BatchResult<Component>> results = MineDown.parseAll(messages, MineDownSettings.DEFAULT);
+        Assertions.assertEquals(messages.size(), results.size());
+        for (int i = 0; i < messages.size(); i++) {
+            Assertions.assertEquals(i, results.get(i).index());
+            Assertions.assertTrue(results.get(i).isSuccess());
+            Assertions.assertEquals(MineDownSettings.DEFAULT.parse(messages.get(i)), results.get(i).value());
+        }
+    }
+
+    @Test
+    public void testParseAllWithExecutor() {
+        System.out.println("testParseAllWithExecutor");
+        List<String> messages = messages(100);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<BatchResult<Component>> results = MineDown.parseAll(messages, MineDownSettings.DEFAULT, executor);
+            for (int i = 0; i < messages.size(); i++) {
+                Assertions.assertEquals(MineDownSettings.DEFAULT.parse(messages.get(i)), results.get(i).value());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testErrorReporting() {
+        System.out.println("testErrorReporting");
+        List<String> messages = messages(40);
+        messages.set(17, "[invalid](show_item=stone*abc)");
+        List<BatchResult<Component>> results = MineDown.parseAll(messages, MineDownSettings.builder().lenient(false).build());
+        Assertions.assertFalse(results.get(17).isSuccess());
+        Assertions.assertNull(results.get(17).value());
+        Assertions.assertTrue(results.get(17).error() instanceof IllegalArgumentException);
+        Assertions.assertTrue(results.get(16).isSuccess());
+        Assertions.assertTrue(results.get(18).isSuccess());
+    }
+
+    @Test
+    public void testStringifyAll() {
+        System.out.println("testStringifyAll");
+        List<Component> components = new ArrayList<>();
+        for (String message : messages(50)) {
+            components.add(MineDown.parse(message));
+        }
+        MineDownStringifier stringifier = new MineDownStringifier();
+        List<BatchResult<String>> results = stringifier.stringifyAll(components);
+        for (int i = 0; i < components.size(); i++) {
+            Assertions.assertEquals(new MineDownStringifier().stringify(components.get(i)), results.get(i).value());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package de.themoep.minedown.tests;
+
+import de.themoep.minedown.MineDown;
+import de.themoep.minedown.MineDownCache;
+import de.themoep.minedown.MineDownParser;
+import de.themoep.minedown.MineDownSettings;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CacheTest {
+
+    @AfterEach
+    public void resetGlobal() {
+        MineDownCache.global(null);
+    }
+
+    @Test
+    public void testCaching() {
+        System.out.println("testCaching");
+        MineDownCache cache = new MineDownCache(10);
+        MineDownSettings settings = MineDownSettings.DEFAULT;
+        Component first = cache.get(settings, "&6Test **bold** [event](/command)");
+        Assertions.assertEquals(0, cache.hits());
+        Assertions.assertEquals(1, cache.misses());
+        Assertions.assertSame(first, cache.get(settings, "&6Test **bold** [event](/command)"));
+        Assertions.assertEquals(1, cache.hits());
+        Assertions.assertEquals(settings.parse("&6Test **bold** [event](/command)"), first);
+
+        MineDownSettings other = settings.toBuilder().disable(MineDownParser.Option.SIMPLE_FORMATTING).build();
+        Assertions.assertNotEquals(first, cache.get(other, "&6Test **bold** [event](/command)"));
+        Assertions.assertSame(first, cache.get(settings.toBuilder().build(), "&6Test **bold** [event](/command)"));
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testEviction() {
+        System.out.println("testEviction");
+        MineDownCache cache = new MineDownCache(4);
+        for (int i = 0; i < 10; i++) {
+            cache.get(MineDownSettings.DEFAULT, "&6Message " + i);
+        }
+        Assertions.assertEquals(4, cache.size());
+        Assertions.assertEquals(6, cache.evictions());
+        Assertions.assertNull(cache.getIfPresent(MineDownSettings.DEFAULT, "&6Message 0"));
+        Assertions.assertNotNull(cache.getIfPresent(MineDownSettings.DEFAULT, "&6Message 9"));
+    }
+
+    @Test
+    public void testGlobal() {
+        System.out.println("testGlobal");
+        MineDownCache cache = new MineDownCache(10);
+        MineDownCache.global(cache);
+        Component first = new MineDown("&6Test %placeholder%").toComponent();
+        Assertions.assertEquals(first, new MineDown("&6Test %placeholder%").toComponent());
+        Assertions.assertEquals(1, cache.hits());
+        Assertions.assertEquals(
+                MineDown.parse("&6Test value"),
+                new MineDown("&6Test %placeholder%").replace("placeholder", "value").toComponent()
+        );
+        // Messages with replacements are cached as compiled templates
+        Assertions.assertEquals(1, cache.hits());
+        Assertions.assertEquals(
+                MineDown.parse("&6Test other"),
+                new MineDown("&6Test %placeholder%").replace("placeholder", "other").toComponent()
+        );
+        Assertions.assertEquals(2, cache.hits());
+    }
+}
@@ -0,0 +1,44 @@
+package de.themoep.minedown.tests;
+
+import de.themoep.minedown.MineDown;
+import de.themoep.minedown.MineDownSettings;
+import de.themoep.minedown.ParseResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DiagnosticsTest {
+
+    @Test
+    public void testProblems() {
+        System.out.println("testProblems");
+        String message = "[text](color=nope show_item=stone*abc)";
+        MineDownSettings strict = MineDownSettings.builder().lenient(false).build();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> strict.parse(message));
+
+        ParseResult result = Assertions.assertDoesNotThrow(() -> MineDown.parseWithDiagnostics(message, strict));
+        Assertions.assertTrue(result.hasProblems());
+        Assertions.assertEquals(2, result.problems().size());
+        Assertions.assertEquals("nope", message.substring(result.problems().get(0).start(), result.problems().get(0).end()));
+        Assertions.assertEquals("stone*abc", message.substring(result.problems().get(1).start(), result.problems().get(1).end()));
+        Assertions.assertEquals(strict.toBuilder().lenient(true).build().parse(message), result.component());
+    }
+
+    @Test
+    public void testNoProblems() {
+        System.out.println("testNoProblems");
+        String message = "&6Test **bold** [event](color=red show_item=stone*2)";
+        ParseResult result = MineDownSettings.DEFAULT.parseWithDiagnostics(message);
+        Assertions.assertFalse(result.hasProblems());
+        Assertions.assertTrue(result.problems().isEmpty());
+        Assertions.assertEquals(MineDownSettings.DEFAULT.parse(message), result.component());
+    }
+
+    @Test
+    public void testFormatProblem() {
+        System.out.println("testFormatProblem");
+        String message = "[text](format=bold,blurry)";
+        ParseResult result = MineDownSettings.DEFAULT.parseWithDiagnostics(message);
+        Assertions.assertEquals(1, result.problems().size());
+        Assertions.assertEquals("blurry", message.substring(result.problems().get(0).start(), result.problems().get(0).end()));
+    }
+}
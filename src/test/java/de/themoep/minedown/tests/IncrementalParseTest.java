@@ -0,0 +1,96 @@
+package de.themoep.minedown.tests;
+
+import de.themoep.minedown.IncrementalParseResult;
+import de.themoep.minedown.MineDownParser;
+import de.themoep.minedown.MineDownSettings;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IncrementalParseTest {
+
+    /**
+     * Flatten components to the characters and their styles so that the way the text was split doesn't matter
+     */
+    private static List<Object> flatten(Component component, List<Object> flattened) {
+        if (component instanceof TextComponent) {
+            for (char c : ((TextComponent) component).content().toCharArray()) {
+                flattened.add(c);
+                flattened.add(component.style());
+            }
+        }
+        for (Component child : component.children()) {
+            flatten(child, flattened);
+        }
+        return flattened;
+    }
+
+    private static void assertParsed(IncrementalParseResult result) {
+        Assertions.assertEquals(
+                flatten(MineDownSettings.DEFAULT.parse(result.message()), new ArrayList<>()),
+                flatten(result.component(), new ArrayList<>()),
+                result.message()
+        );
+    }
+
+    @Test
+    public void testTyping() {
+        System.out.println("testTyping");
+        String message = "&6Hello **world** this is [a test](/command here) &lmessage with \\**escapes and example.com";
+        IncrementalParseResult result = new MineDownParser().parseIncremental("");
+        for (int i = 0; i < message.length(); i++) {
+            result = result.edit(i, 0, message.substring(i, i + 1));
+            assertParsed(result);
+        }
+        Assertions.assertEquals(message, result.message());
+        for (int i = message.length(); i > 0; i--) {
+            result = result.edit(i - 1, 1, "");
+            assertParsed(result);
+        }
+        Assertions.assertEquals("", result.message());
+    }
+
+    @Test
+    public void testEditing() {
+        System.out.println("testEditing");
+        IncrementalParseResult result = IncrementalParseResult.parse(MineDownSettings.DEFAULT,
+                "&6Gold text with **some bold** words and [an event](/command) at the end");
+        Assertions.assertTrue(result.segmentCount() > 5);
+
+        IncrementalParseResult edited = result.edit(15, 0, "more ");
+        assertParsed(edited);
+        Assertions.assertTrue(edited.reusedSegments() > 0);
+
+        edited = result.edit(10, 0, "&c");
+        assertParsed(edited);
+
+        edited = result.edit(16, 0, "[");
+        assertParsed(edited);
+
+        edited = result.edit(0, result.message().length(), "**replaced**");
+        assertParsed(edited);
+        Assertions.assertEquals("**replaced**", edited.message());
+
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> result.edit(5, 1000, ""));
+    }
+
+    @Test
+    public void testEscapedFormatting() {
+        System.out.println("testEscapedFormatting");
+        String message = "**a \\** b** c** d";
+        IncrementalParseResult result = IncrementalParseResult.parse(MineDownSettings.DEFAULT, message);
+        assertParsed(result);
+        assertParsed(result.edit(message.length(), 0, " e**"));
+        assertParsed(result.edit(0, 0, "\\"));
+
+        result = IncrementalParseResult.parse(MineDownSettings.DEFAULT, "");
+        for (int i = 0; i < message.length(); i++) {
+            result = result.edit(i, 0, message.substring(i, i + 1));
+            assertParsed(result);
+        }
+    }
+}
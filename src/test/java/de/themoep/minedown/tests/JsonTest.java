@@ -0,0 +1,56 @@
+package de.themoep.minedown.tests;
+
+import de.themoep.minedown.MineDown;
+import de.themoep.minedown.MineDownSettings;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class JsonTest {
+
+    @Test
+    public void testJson() {
+        System.out.println("testJson");
+        MineDownSettings settings = MineDownSettings.DEFAULT;
+        Assertions.assertAll(
+                () -> Assertions.assertEquals("{\"text\":\"\"}", settings.toJson("")),
+                () -> Assertions.assertEquals("{\"text\":\"Gold text\",\"color\":\"gold\"}", settings.toJson("&6Gold &6text")),
+                () -> Assertions.assertEquals("{\"text\":\"\",\"extra\":[{\"text\":\"Plain \"},{\"text\":\"bold\",\"bold\":true}]}",
+                        settings.toJson("Plain **bold**")),
+                () -> Assertions.assertEquals("{\"text\":\"#ff00ff\",\"color\":\"#ff00ff\"}", settings.toJson("&#f0f&#ff00ff")),
+                () -> Assertions.assertEquals("{\"text\":\"Say \\\"hi\\\"\\nC:\\\\\"}", MineDown.toJson("Say \"hi\"\nC:\\\\", settings))
+        );
+    }
+
+    @Test
+    public void testEvents() {
+        System.out.println("testEvents");
+        String json = MineDownSettings.DEFAULT.toJson("[run](/command argument)");
+        Assertions.assertTrue(json.startsWith("{\"text\":\"run\""), json);
+        Assertions.assertTrue(json.contains("\"clickEvent\":{\"action\":\"run_command\",\"value\":\"/command argument\"}"), json);
+        Assertions.assertTrue(json.contains("\"hoverEvent\":{\"action\":\"show_text\",\"contents\":{\"text\":"), json);
+
+        json = MineDownSettings.DEFAULT.toJson("[item](show_item=stone*3)");
+        Assertions.assertTrue(json.contains("\"hoverEvent\":{\"action\":\"show_item\",\"contents\":{\"id\":\"minecraft:stone\",\"count\":3}}"), json);
+    }
+
+    @Test
+    public void testOutputs() throws IOException {
+        System.out.println("testOutputs");
+        String message = "&6Ümläuts €uro and 😀 [link](https://example.com)";
+        String json = MineDownSettings.DEFAULT.toJson(message);
+
+        StringWriter writer = new StringWriter();
+        MineDownSettings.DEFAULT.writeJson(message, writer);
+        Assertions.assertEquals(json, writer.toString());
+
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        MineDownSettings.DEFAULT.writeJson(message, buffer);
+        Assertions.assertArrayEquals(json.getBytes(StandardCharsets.UTF_8), Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+}
@@ -0,0 +1,51 @@
+package de.themoep.minedown.tests;
+
+import de.themoep.minedown.MineDownParser;
+import de.themoep.minedown.MineDownSettings;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LegacyTest {
+
+    private static String legacy(String message) {
+        return message.replace('&', MineDownParser.LEGACY_COLOR_CHAR);
+    }
+
+    @Test
+    public void testLegacy() {
+        System.out.println("testLegacy");
+        MineDownSettings settings = MineDownSettings.DEFAULT;
+        Assertions.assertAll(
+                () -> Assertions.assertEquals("", settings.toLegacy("")),
+                () -> Assertions.assertEquals(legacy("Plain &6gold"), settings.toLegacy("Plain &6gold")),
+                () -> Assertions.assertEquals(legacy("&6Gold &lbold&6 text"), settings.toLegacy("&6Gold **bold** text")),
+                () -> Assertions.assertEquals(legacy("&6gold&r plain"), settings.toLegacy("&6gold&r plain")),
+                () -> Assertions.assertEquals(legacy("&6&l&nboth&6&l bold"), settings.toLegacy("&6**__both__ bold**")),
+                () -> Assertions.assertEquals("click text", settings.toLegacy("[click](/command) text")),
+                () -> Assertions.assertEquals(legacy("&cred &bevent"), settings.toLegacy("&cred [event](aqua https://example.com)"))
+        );
+    }
+
+    @Test
+    public void testHexColors() {
+        System.out.println("testHexColors");
+        MineDownSettings settings = MineDownSettings.DEFAULT;
+        Assertions.assertEquals(legacy("&4dark red"), settings.toLegacy("&#ff0000&dark red"));
+        Assertions.assertEquals(legacy("&6gold"), settings.toLegacy("&#ffaa00&gold"));
+        Assertions.assertEquals(legacy("&fwhite"), settings.toLegacy("&#fafafa&white"));
+        Assertions.assertEquals(legacy("&0black"), settings.toLegacy("&#010203&black"));
+    }
+
+    @Test
+    public void testReusedBuilder() {
+        System.out.println("testReusedBuilder");
+        MineDownParser parser = new MineDownParser();
+        StringBuilder out = new StringBuilder();
+        parser.renderLegacy("&6first", out);
+        Assertions.assertEquals(legacy("&6first"), out.toString());
+        out.setLength(0);
+        parser.renderLegacy("&asecond", out);
+        Assertions.assertEquals(legacy("&asecond"), out.toString());
+        Assertions.assertEquals(out.toString(), parser.toLegacy("&asecond"));
+    }
+}
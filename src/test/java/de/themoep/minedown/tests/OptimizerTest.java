@@ -0,0 +1,97 @@
+package de.themoep.minedown.tests;
+
+import de.themoep.minedown.ComponentOptimizer;
+import de.themoep.minedown.MineDownSettings;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OptimizerTest {
+
+    private static final MineDownSettings OPTIMIZED = MineDownSettings.builder().optimize(true).build();
+
+    /**
+     * Flatten components to the characters and their inherited styles so that the way the text was split doesn't matter
+     */
+    private static List<Object> flatten(Component component, Style parentStyle, List<Object> flattened) {
+        Style style = parentStyle.merge(component.style());
+        if (component instanceof TextComponent) {
+            for (char c : ((TextComponent) component).content().toCharArray()) {
+                flattened.add(c);
+                flattened.add(style);
+            }
+        }
+        for (Component child : component.children()) {
+            flatten(child, style, flattened);
+        }
+        return flattened;
+    }
+
+    private static void assertOptimized(String message) {
+        Component original = MineDownSettings.DEFAULT.parse(message);
+        Component optimized = ComponentOptimizer.optimize(original);
+        System.out.print(message + "\n" + ComponentOptimizer.countNodes(original) + " -> " + ComponentOptimizer.countNodes(optimized) + " nodes\n");
+        Assertions.assertEquals(
+                flatten(original, Style.empty(), new ArrayList<>()),
+                flatten(optimized, Style.empty(), new ArrayList<>()),
+                message
+        );
+        Assertions.assertTrue(ComponentOptimizer.countNodes(optimized) <= ComponentOptimizer.countNodes(original), message);
+        Assertions.assertEquals(optimized, OPTIMIZED.parse(message));
+    }
+
+    @Test
+    public void testSameLook() {
+        System.out.println("testSameLook");
+        Assertions.assertAll(
+                () -> assertOptimized("&6Gold text"),
+                () -> assertOptimized("&6Gold &6still gold&6!"),
+                () -> assertOptimized("&6Test **bold** __underlined__ [event](/command) example.com &lbold &rreset"),
+                () -> assertOptimized("[**all** __of__ it](/command)"),
+                () -> assertOptimized("&6**a****b**"),
+                () -> assertOptimized("")
+        );
+    }
+
+    @Test
+    public void testMerging() {
+        System.out.println("testMerging");
+        Component component = OPTIMIZED.parse("&6Gold &6still gold&6!");
+        Assertions.assertTrue(component.children().isEmpty());
+        Assertions.assertEquals("Gold still gold!", ((TextComponent) component).content());
+        Assertions.assertEquals(NamedTextColor.GOLD, component.style().color());
+    }
+
+    @Test
+    public void testHoisting() {
+        System.out.println("testHoisting");
+        Component component = OPTIMIZED.parse("&6**bold** and __underlined__");
+        Assertions.assertEquals(NamedTextColor.GOLD, component.style().color());
+        Assertions.assertEquals(TextDecoration.State.NOT_SET, component.style().decoration(TextDecoration.BOLD));
+        for (Component child : component.children()) {
+            Assertions.assertNull(child.style().color());
+        }
+    }
+
+    @Test
+    public void testNestedComponents() {
+        System.out.println("testNestedComponents");
+        Component component = TextComponent.builder("")
+                .append(TextComponent.builder("").color(NamedTextColor.RED)
+                        .append(Component.text("a"))
+                        .append(TextComponent.builder("b").build())
+                        .build())
+                .append(TextComponent.builder("").append(Component.text("c", NamedTextColor.RED)).build())
+                .build();
+        Component optimized = ComponentOptimizer.optimize(component);
+        Assertions.assertEquals(1, ComponentOptimizer.countNodes(optimized));
+        Assertions.assertEquals(Component.text("abc", NamedTextColor.RED), optimized);
+    }
+}
@@ -1,26 +1,41 @@
 package de.themoep.minedown.tests;
 
 import de.themoep.minedown.MineDown;
-import net.md_5.bungee.api.chat.BaseComponent;
-import net.md_5.bungee.chat.ComponentSerializer;
+import de.themoep.minedown.MineDownParser;
+import de.themoep.minedown.MineDownSettings;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 public class ParserTest {
     
     private void parse(String mineDownString, String... replacements) {
-        System.out.print(mineDownString + "\n" + ComponentSerializer.toString(MineDown.parse(mineDownString, replacements)) + "\n");
+        System.out.print(mineDownString + "\n" + MineDown.parse(mineDownString, replacements) + "\n");
     }
 
-    private void parse(String mineDownString, String placeholder, BaseComponent[] replacement) {
-        System.out.print(mineDownString + "\n" + ComponentSerializer.toString(new MineDown(mineDownString).replace(placeholder, replacement).toComponent()) + "\n");
+    private void parse(String mineDownString, String placeholder, Component replacement) {
+        System.out.print(mineDownString + "\n" + new MineDown(mineDownString).replace(placeholder, replacement).toComponent() + "\n");
     }
 
-    private void parse(String mineDownString, String placeholder1, BaseComponent[] replacement1, String placeholder2, BaseComponent[] replacement2) {
-        System.out.print(mineDownString + "\n" + ComponentSerializer.toString(new MineDown(mineDownString)
+    private void parse(String mineDownString, String placeholder1, Component replacement1, String placeholder2, Component replacement2) {
+        System.out.print(mineDownString + "\n" + new MineDown(mineDownString)
                 .replace(placeholder1, replacement1)
                 .replace(placeholder2, replacement2)
-                .toComponent()) + "\n");
+                .toComponent() + "\n");
     }
     
     @Test
@@ -101,4 +116,147 @@ public class ParserTest {
                 () -> parse("[this](show_entity=coool-uuid-lol:minecraft:cow &bEine Kuh)")
         );
     }
+
+    @Test
+    public void testNesting() {
+        System.out.println("testNesting");
+        Component component = MineDown.parse("a**b__c__d**e");
+        Assertions.assertEquals(5, component.children().size());
+        TextComponent inner = (TextComponent) component.children().get(2);
+        Assertions.assertEquals("c", inner.content());
+        Assertions.assertTrue(inner.style().hasDecoration(TextDecoration.BOLD));
+        Assertions.assertTrue(inner.style().hasDecoration(TextDecoration.UNDERLINED));
+        Assertions.assertFalse(component.children().get(4).style().hasDecoration(TextDecoration.BOLD));
+
+        StringBuilder deep = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            deep.append("[**");
+        }
+        deep.append("text");
+        for (int i = 0; i < 2000; i++) {
+            deep.append("**](gray)");
+        }
+        Assertions.assertDoesNotThrow(() -> MineDown.parse(deep.toString()));
+    }
+
+    @Test
+    public void testRegionParsing() {
+        System.out.println("testRegionParsing");
+        String message = "&bTest [**[this]**](https://example.com) __string__ example.com!";
+        Component expected = new MineDownParser().parse(message).build();
+        String padded = "ignored " + message + " ignored";
+        int start = "ignored ".length();
+        int end = start + message.length();
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(expected, new MineDownParser().parse(new StringBuilder(padded), start, end).build()),
+                () -> Assertions.assertEquals(expected, new MineDownParser().parse(CharBuffer.wrap(padded), start, end).build()),
+                () -> Assertions.assertEquals(expected, new MineDownParser().parse(padded.toCharArray(), start, end).build())
+        );
+    }
+
+    @Test
+    public void testSharedSettings() throws Exception {
+        System.out.println("testSharedSettings");
+        MineDownSettings settings = MineDownSettings.builder()
+                .disable(MineDownParser.Option.LEGACY_COLORS)
+                .urlHoverText("Open %url%")
+                .build();
+        String message = "&bTest [**[this]**](https://example.com) __string__ example.com!";
+        Component expected = new MineDownParser(settings).parse(message).build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Component>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(() -> settings.parse(message)));
+            }
+            for (Future<Component> result : results) {
+                Assertions.assertEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        MineDownParser parser = new MineDownParser(settings);
+        MineDownParser copy = parser.copy().enable(MineDownParser.Option.LEGACY_COLORS);
+        Assertions.assertFalse(parser.isEnabled(MineDownParser.Option.LEGACY_COLORS));
+        Assertions.assertTrue(copy.isEnabled(MineDownParser.Option.LEGACY_COLORS));
+    }
+
+    @Test
+    public void testFilter() {
+        System.out.println("testFilter");
+        MineDown mineDown = new MineDown("&bTest &lstring!").filter(MineDownParser.Option.LEGACY_COLORS);
+        Assertions.assertTrue(mineDown.parser().isFiltered(MineDownParser.Option.LEGACY_COLORS));
+        Assertions.assertTrue(mineDown.parser().isEnabled(MineDownParser.Option.LEGACY_COLORS));
+        Assertions.assertEquals("Test string!", MineDown.stringify(mineDown.toComponent()));
+
+        MineDownParser parser = new MineDownParser().filter(MineDownParser.Option.SIMPLE_FORMATTING);
+        Assertions.assertTrue(parser.isFiltered(MineDownParser.Option.SIMPLE_FORMATTING));
+        Assertions.assertFalse(parser.copy().unfilter(MineDownParser.Option.SIMPLE_FORMATTING).isFiltered(MineDownParser.Option.SIMPLE_FORMATTING));
+    }
+
+    @Test
+    public void testUrlHover() {
+        System.out.println("testUrlHover");
+        Component component = new MineDown("Visit example.com or example.com today").urlHoverText("&7Open %url%").toComponent();
+        List<Component> urls = new ArrayList<>();
+        for (Component child : component.children()) {
+            if (child.style().clickEvent() != null) {
+                urls.add(child);
+            }
+        }
+        Assertions.assertEquals(2, urls.size());
+        Assertions.assertEquals(new MineDown("&7Open example.com").urlDetection(false).toComponent(), urls.get(0).style().hoverEvent().value());
+        Assertions.assertSame(urls.get(0).style().hoverEvent(), urls.get(1).style().hoverEvent());
+    }
+
+    @Test
+    public void testEventDefinitions() {
+        System.out.println("testEventDefinitions");
+        Component command = MineDown.parse("[this](Color=Green Format=Bold RUN_COMMAND=/example command Hover={Hover text})").children().get(0);
+        Assertions.assertEquals(NamedTextColor.GREEN, command.style().color());
+        Assertions.assertTrue(command.style().hasDecoration(TextDecoration.BOLD));
+        Assertions.assertEquals(ClickEvent.of(ClickEvent.Action.RUN_COMMAND, "/example command"), command.style().clickEvent());
+        Assertions.assertEquals(MineDown.parse("Hover text"), command.style().hoverEvent().value());
+
+        Component item = MineDown.parse("[this](show_item=stone*3)").children().get(0);
+        HoverEvent.ShowItem showItem = (HoverEvent.ShowItem) item.style().hoverEvent().value();
+        Assertions.assertEquals(Key.of("minecraft:stone"), showItem.item());
+        Assertions.assertEquals(3, showItem.count());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MineDown.parse("[this](show_item=stone*many)"));
+        Assertions.assertDoesNotThrow(() -> new MineDownParser().lenient(true).parse("[this](show_item=stone*many)"));
+    }
+
+    @Test
+    public void testFormatNames() {
+        System.out.println("testFormatNames");
+        Component simple = MineDown.parse("[Text](blue underline https://example.com)").children().get(0);
+        Assertions.assertEquals(NamedTextColor.BLUE, simple.style().color());
+        Assertions.assertTrue(simple.style().hasDecoration(TextDecoration.UNDERLINED));
+        Assertions.assertEquals(ClickEvent.of(ClickEvent.Action.OPEN_URL, "https://example.com"), simple.style().clickEvent());
+
+        Component advanced = MineDown.parse("[Text](format=underline,bold)").children().get(0);
+        Assertions.assertTrue(advanced.style().hasDecoration(TextDecoration.UNDERLINED));
+        Assertions.assertTrue(advanced.style().hasDecoration(TextDecoration.BOLD));
+
+        Assertions.assertTrue(MineDown.parse("[Text](#0000ff underline https://example.com Hover Text)").children().get(0).style().hasDecoration(TextDecoration.UNDERLINED));
+        Assertions.assertTrue(MineDown.parse("[Text](format=underlined,magic)").children().get(0).style().hasDecoration(TextDecoration.OBFUSCATED));
+        Assertions.assertDoesNotThrow(() -> MineDown.parse("[Text](blue underline)"));
+    }
+
+    @Test
+    public void testColorResolution() {
+        System.out.println("testColorResolution");
+        Component component = MineDown.parse("&#f0f&a&GOLD&b&#FF00FF&c&x&f&f&0&0&f&fd&6e");
+        Assertions.assertEquals(5, component.children().size());
+        Assertions.assertEquals(TextColor.fromHexString("#ff00ff"), component.children().get(0).style().color());
+        Assertions.assertEquals(NamedTextColor.GOLD, component.children().get(1).style().color());
+        Assertions.assertSame(component.children().get(0).style().color(), component.children().get(2).style().color());
+        Assertions.assertSame(component.children().get(0).style().color(), component.children().get(3).style().color());
+        Assertions.assertEquals(NamedTextColor.GOLD, component.children().get(4).style().color());
+        Assertions.assertEquals(NamedTextColor.GOLD, MineDownParser.parseColor("Gold"));
+        Assertions.assertNull(MineDownParser.parseColor("#ff00f"));
+    }
 }
@@ -0,0 +1,64 @@
+package de.themoep.minedown.tests;
+
+import de.themoep.minedown.ComponentOptimizer;
+import de.themoep.minedown.MineDownMetrics;
+import de.themoep.minedown.MineDownParser;
+import de.themoep.minedown.MineDownSettings;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PlainTextTest {
+
+    private static final MineDownSettings OPTIMIZED = MineDownSettings.builder().optimize(true).build();
+
+    private static void assertSameResult(String message) {
+        // The builder returned by the parser never takes the fast path
+        Component parsed = new MineDownParser().parse(message).build();
+        Assertions.assertEquals(parsed, MineDownSettings.DEFAULT.parse(message), message);
+        Assertions.assertEquals(ComponentOptimizer.optimize(parsed), OPTIMIZED.parse(message), message);
+        Assertions.assertEquals(MineDownSettings.DEFAULT.toJson(message), OPTIMIZED.toJson(message), message);
+    }
+
+    @Test
+    public void testPlainText() {
+        System.out.println("testPlainText");
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(Component.text("hello there, how are you?"), OPTIMIZED.parse("hello there, how are you?")),
+                () -> Assertions.assertEquals(Component.empty(), MineDownSettings.DEFAULT.parse("")),
+                () -> Assertions.assertEquals("{\"text\":\"100% _sure_ * ~ ?\"}", MineDownSettings.DEFAULT.toJson("100% _sure_ * ~ ?")),
+                () -> Assertions.assertEquals("just text", MineDownSettings.DEFAULT.toLegacy("just text"))
+        );
+    }
+
+    @Test
+    public void testSameResult() {
+        System.out.println("testSameResult");
+        Assertions.assertAll(
+                () -> assertSameResult("hello there, how are you?"),
+                () -> assertSameResult("single _ * ~ ? # chars"),
+                () -> assertSameResult("\"quoted\" text\nwith a new line"),
+                () -> assertSameResult("&6gold"),
+                () -> assertSameResult("**bold**"),
+                () -> assertSameResult("[event](/command)"),
+                () -> assertSameResult("escaped \\&6"),
+                () -> assertSameResult("visit example.com now"),
+                () -> assertSameResult("no.url here"),
+                () -> assertSameResult("visit example.com!")
+        );
+    }
+
+    @Test
+    public void testMetrics() {
+        System.out.println("testMetrics");
+        long hits = MineDownMetrics.plainTextHits();
+        long misses = MineDownMetrics.plainTextMisses();
+        MineDownSettings.DEFAULT.parse("plain text");
+        MineDownSettings.DEFAULT.parse("&6not plain");
+        MineDownSettings.DEFAULT.parse("https://example.com");
+        MineDownSettings.DEFAULT.toLegacy("https://example.com");
+        Assertions.assertEquals(hits + 2, MineDownMetrics.plainTextHits());
+        Assertions.assertEquals(misses + 2, MineDownMetrics.plainTextMisses());
+        Assertions.assertTrue(MineDownMetrics.plainTextHitRate() > 0);
+    }
+}
@@ -0,0 +1,58 @@
+package de.themoep.minedown.tests;
+
+import de.themoep.minedown.MineDown;
+import de.themoep.minedown.Replacer;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.format.Style;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ReplacerTest {
+
+    @Test
+    public void testStringReplacement() {
+        System.out.println("testStringReplacement");
+        Replacer replacer = new Replacer().replace("name", "Phoenix", "n", "N", "am", "AM");
+        Assertions.assertAll(
+                () -> Assertions.assertEquals("Hi Phoenix, N", replacer.replaceIn("Hi %name%, %n%")),
+                () -> Assertions.assertEquals("100% %Phoenix%", replacer.replaceIn("100% %%name%%")),
+                () -> Assertions.assertEquals("%namAM", replacer.replaceIn("%nam%am%")),
+                () -> Assertions.assertEquals("no placeholders", replacer.replaceIn("no placeholders")),
+                // Replaced values are not replaced again
+                () -> Assertions.assertEquals("%n%", new Replacer().replace("a", "%n%", "n", "N").replaceIn("%a%"))
+        );
+    }
+
+    @Test
+    public void testIgnoreCase() {
+        System.out.println("testIgnoreCase");
+        Replacer replacer = new Replacer().replace("Name", "Phoenix");
+        Assertions.assertEquals("Phoenix Phoenix", replacer.replaceIn("%name% %NAME%"));
+        replacer.ignorePlaceholderCase(false);
+        Assertions.assertEquals("%name% Phoenix", replacer.replaceIn("%name% %Name%"));
+    }
+
+    @Test
+    public void testPlaceholderIndicator() {
+        System.out.println("testPlaceholderIndicator");
+        Replacer replacer = new Replacer().replace("name", "Phoenix").placeholderPrefix("{").placeholderSuffix("}");
+        Assertions.assertEquals("%name% Phoenix", replacer.replaceIn("%name% {name}"));
+    }
+
+    @Test
+    public void testComponentReplacement() {
+        System.out.println("testComponentReplacement");
+        Component value = MineDown.parse("&5value");
+        Component replaced = new Replacer()
+                .replace("text", "Text")
+                .replace("component", value)
+                .replaceIn(Component.text("%text%: %component%!",
+                        Style.builder().clickEvent(ClickEvent.of(ClickEvent.Action.RUN_COMMAND, "/say %text%")).build()));
+        Assertions.assertEquals("Text: ", ((TextComponent) replaced).content());
+        Assertions.assertEquals(value, replaced.children().get(0));
+        Assertions.assertEquals(Component.text("!"), replaced.children().get(1));
+        Assertions.assertEquals("/say Text", replaced.style().clickEvent().value());
+    }
+}
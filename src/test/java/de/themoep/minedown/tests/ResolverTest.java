@@ -0,0 +1,103 @@
+package de.themoep.minedown.tests;
+
+import de.themoep.minedown.MineDown;
+import de.themoep.minedown.MineDownTemplate;
+import de.themoep.minedown.PlaceholderResolver;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class ResolverTest {
+
+    @Test
+    public void testOnlyPresentPlaceholders() {
+        System.out.println("testOnlyPresentPlaceholders");
+        List<String> requested = new ArrayList<>();
+        PlaceholderResolver resolver = placeholder -> {
+            requested.add(placeholder);
+            return placeholder.equals("balance") ? "100" : null;
+        };
+        Assertions.assertEquals(
+                MineDown.parse("&6Balance: 100 %unknown% 100"),
+                new MineDown("&6Balance: %balance% %unknown% %balance%").replace(resolver).toComponent()
+        );
+        // Every placeholder is only requested once
+        Assertions.assertEquals(2, requested.size());
+        Assertions.assertTrue(requested.contains("balance"));
+        Assertions.assertTrue(requested.contains("unknown"));
+    }
+
+    @Test
+    public void testReplacementsFirst() {
+        System.out.println("testReplacementsFirst");
+        List<String> requested = new ArrayList<>();
+        Component component = new MineDown("%name% has %balance%")
+                .replace("name", "Phoenix")
+                .replace(placeholder -> {
+                    requested.add(placeholder);
+                    return "100";
+                })
+                .toComponent();
+        Assertions.assertEquals(MineDown.parse("Phoenix has 100"), component);
+        Assertions.assertEquals(Collections.singletonList("balance"), requested);
+    }
+
+    @Test
+    public void testBatch() {
+        System.out.println("testBatch");
+        List<Collection<String>> batches = new ArrayList<>();
+        PlaceholderResolver resolver = new PlaceholderResolver() {
+            @Override
+            public Object resolve(String placeholder) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Map<String, ?> resolveAll(Collection<String> placeholders) {
+                batches.add(placeholders);
+                Map<String, Object> values = new HashMap<>();
+                for (String placeholder : placeholders) {
+                    values.put(placeholder, placeholder.toUpperCase());
+                }
+                return values;
+            }
+        };
+        MineDownTemplate template = MineDown.compile("[%a%](/cmd %b% hover=%c%) %A%");
+        Component rendered = template.render(resolver);
+        Component event = rendered.children().get(0);
+        Assertions.assertEquals("/cmd B", event.style().clickEvent().value());
+        Assertions.assertEquals(MineDown.parse("C"), event.style().hoverEvent().value());
+        Assertions.assertEquals(Component.text(" A"), rendered.children().get(1));
+        Assertions.assertEquals(1, batches.size());
+        Assertions.assertEquals(3, batches.get(0).size());
+    }
+
+    @Test
+    public void testAsync() {
+        System.out.println("testAsync");
+        CompletableFuture<Map<String, ?>> values = new CompletableFuture<>();
+        PlaceholderResolver resolver = new PlaceholderResolver() {
+            @Override
+            public Object resolve(String placeholder) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<Map<String, ?>> resolveAllAsync(Collection<String> placeholders) {
+                return values;
+            }
+        };
+        CompletableFuture<Component> future = MineDown.compile("Playtime: %playtime%").renderAsync(resolver);
+        Assertions.assertFalse(future.isDone());
+        values.complete(Collections.singletonMap("playtime", "5h"));
+        Assertions.assertEquals(MineDown.parse("Playtime: 5h"), future.join());
+    }
+}
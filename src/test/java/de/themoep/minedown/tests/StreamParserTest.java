@@ -0,0 +1,85 @@
+package de.themoep.minedown.tests;
+
+import de.themoep.minedown.MineDownParser;
+import de.themoep.minedown.MineDownSettings;
+import de.themoep.minedown.MineDownStreamParser;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StreamParserTest {
+
+    private static final String DOCUMENT = "&6Gold line\n"
+            + "**bold\nstill bold** normal\n"
+            + "[event\ntext](/command\nwith a new line)\n"
+            + "escaped \\\nnew line &lbold legacy\n"
+            + "##unclosed\n"
+            + "last line";
+
+    /**
+     * Flatten components to the characters and their styles so that the way the text was split doesn't matter
+     */
+    private static List<Object> flatten(Component component, List<Object> flattened) {
+        if (component instanceof TextComponent) {
+            for (char c : ((TextComponent) component).content().toCharArray()) {
+                flattened.add(c);
+                flattened.add(component.style());
+            }
+        }
+        for (Component child : component.children()) {
+            flatten(child, flattened);
+        }
+        return flattened;
+    }
+
+    @Test
+    public void testChunks() {
+        System.out.println("testChunks");
+        List<Object> expected = flatten(new MineDownParser().parse(DOCUMENT).build(), new ArrayList<>());
+        for (int chunkSize = 1; chunkSize < 8; chunkSize++) {
+            List<Component> components = new ArrayList<>();
+            MineDownStreamParser parser = new MineDownParser().stream(components::add);
+            for (int i = 0; i < DOCUMENT.length(); i += chunkSize) {
+                parser.feed(DOCUMENT.substring(i, Math.min(i + chunkSize, DOCUMENT.length())));
+            }
+            parser.finish();
+            Assertions.assertTrue(components.size() > 1);
+            List<Object> flattened = new ArrayList<>();
+            for (Component component : components) {
+                flatten(component, flattened);
+            }
+            Assertions.assertEquals(expected, flattened, "Chunk size " + chunkSize);
+        }
+    }
+
+    @Test
+    public void testReader() throws IOException {
+        System.out.println("testReader");
+        List<Component> components = new ArrayList<>();
+        new MineDownStreamParser(MineDownSettings.DEFAULT, components::add).parse(new StringReader(DOCUMENT));
+        List<Object> flattened = new ArrayList<>();
+        for (Component component : components) {
+            flatten(component, flattened);
+        }
+        Assertions.assertEquals(flatten(MineDownSettings.DEFAULT.parse(DOCUMENT), new ArrayList<>()), flattened);
+    }
+
+    @Test
+    public void testMaxPendingLength() {
+        System.out.println("testMaxPendingLength");
+        List<Component> components = new ArrayList<>();
+        MineDownStreamParser parser = new MineDownParser().stream(components::add).maxPendingLength(16);
+        parser.feed("[never closed\n");
+        Assertions.assertTrue(components.isEmpty());
+        parser.feed("more text\nrest");
+        Assertions.assertEquals(1, components.size());
+        parser.finish();
+        Assertions.assertEquals(2, components.size());
+    }
+}
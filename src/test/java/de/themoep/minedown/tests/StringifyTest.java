@@ -1,57 +1,72 @@
 package de.themoep.minedown.tests;
 
 import de.themoep.minedown.MineDown;
-import net.md_5.bungee.api.ChatColor;
-import net.md_5.bungee.api.chat.BaseComponent;
-import net.md_5.bungee.api.chat.ClickEvent;
-import net.md_5.bungee.api.chat.ComponentBuilder;
-import net.md_5.bungee.api.chat.HoverEvent;
-import net.md_5.bungee.api.chat.ItemTag;
-import net.md_5.bungee.api.chat.TextComponent;
-import net.md_5.bungee.api.chat.hover.content.Entity;
-import net.md_5.bungee.api.chat.hover.content.Item;
-import net.md_5.bungee.api.chat.hover.content.Text;
-import net.md_5.bungee.chat.ComponentSerializer;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.nbt.api.BinaryTagHolder;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
-import java.awt.Color;
+import java.util.UUID;
 
 public class StringifyTest {
     
-    private void stringify(BaseComponent[] components) {
-        String stringified = MineDown.stringify(components);
-        System.out.print(ComponentSerializer.toString(components) + "\n" + stringified + "\n" + ComponentSerializer.toString(MineDown.parse(stringified)) + "\n\n");
+    private void stringify(Component component) {
+        String stringified = MineDown.stringify(component);
+        System.out.print(component + "\n" + stringified + "\n" + MineDown.parse(stringified) + "\n\n");
     }
     
     @Test
     public void testStringify() {
         Assertions.assertAll(
-                () -> stringify(new ComponentBuilder("")
-                        .append("Test ")
-                        .append("link").underlined(true).color(ChatColor.BLUE)
-                        .event(new ClickEvent(ClickEvent.Action.OPEN_URL, "https://example.com"))
-                        .event(new HoverEvent(HoverEvent.Action.SHOW_TEXT, new ComponentBuilder("Hover text").color(ChatColor.BLUE).create()))
-                        .append(". Test Text.").retain(ComponentBuilder.FormatRetention.NONE)
-                        .create()),
-                () -> stringify(new ComponentBuilder("")
-                        .append("Test ").underlined(true).color(ChatColor.of(new Color(0, 255, 128)))
-                        .append("link")
-                        .event(new ClickEvent(ClickEvent.Action.OPEN_URL, "https://example.com"))
-                        .event(new HoverEvent(HoverEvent.Action.SHOW_TEXT, new Text(new ComponentBuilder("Hover text").color(ChatColor.BLUE).create())))
-                        .color(ChatColor.of(new Color(255, 0, 0)))
-                        .append(". Test Text.").retain(ComponentBuilder.FormatRetention.NONE)
-                        .create()),
-                () -> stringify(new ComponentBuilder("")
-                        .append("Entity")
-                        .event(new HoverEvent(HoverEvent.Action.SHOW_ENTITY, new Entity("pig", "some-uuid", new TextComponent(new ComponentBuilder("Hover text").color(ChatColor.BLUE).create()))))
-                        .color(ChatColor.of(new Color(255, 0, 0)))
-                        .create()),
-                () -> stringify(new ComponentBuilder("")
-                        .append("Entity")
-                        .event(new HoverEvent(HoverEvent.Action.SHOW_ITEM, new Item("stone", 3, ItemTag.ofNbt("{Name:\"Name\"}"))))
-                        .color(ChatColor.of(new Color(255, 0, 0)))
-                        .create())
+                () -> stringify(TextComponent.builder("")
+                        .append(Component.text("Test "))
+                        .append(TextComponent.builder("link").decoration(TextDecoration.UNDERLINED, true).color(NamedTextColor.BLUE)
+                                .clickEvent(ClickEvent.of(ClickEvent.Action.OPEN_URL, "https://example.com"))
+                                .hoverEvent(HoverEvent.of(HoverEvent.Action.SHOW_TEXT, Component.text("Hover text", NamedTextColor.BLUE))).build())
+                        .append(Component.text(". Test Text."))
+                        .build()),
+                () -> stringify(TextComponent.builder("")
+                        .append(TextComponent.builder("Test ").decoration(TextDecoration.UNDERLINED, true).color(TextColor.of(0x00FF80)).build())
+                        .append(TextComponent.builder("link").decoration(TextDecoration.UNDERLINED, true).color(TextColor.of(0xFF0000))
+                                .clickEvent(ClickEvent.of(ClickEvent.Action.OPEN_URL, "https://example.com"))
+                                .hoverEvent(HoverEvent.of(HoverEvent.Action.SHOW_TEXT, Component.text("Hover text", NamedTextColor.BLUE))).build())
+                        .append(Component.text(". Test Text."))
+                        .build()),
+                () -> stringify(TextComponent.builder("Entity").color(TextColor.of(0xFF0000))
+                        .hoverEvent(HoverEvent.of(HoverEvent.Action.SHOW_ENTITY, HoverEvent.ShowEntity.of(
+                                Key.of("pig"), UUID.nameUUIDFromBytes("some-uuid".getBytes()), Component.text("Hover text", NamedTextColor.BLUE))))
+                        .build()),
+                () -> stringify(TextComponent.builder("Entity").color(TextColor.of(0xFF0000))
+                        .hoverEvent(HoverEvent.of(HoverEvent.Action.SHOW_ITEM, HoverEvent.ShowItem.of(
+                                Key.of("stone"), 3, BinaryTagHolder.of("{Name:\"Name\"}"))))
+                        .build())
         );
     }
+
+    @Test
+    public void testMergeEvents() {
+        System.out.println("testMergeEvents");
+        ClickEvent click = ClickEvent.of(ClickEvent.Action.OPEN_URL, "https://example.com");
+        HoverEvent<Component> hover = HoverEvent.of(HoverEvent.Action.SHOW_TEXT, Component.text("Hover text"));
+        Component component = TextComponent.builder("")
+                .append(Component.text("Test "))
+                .append(TextComponent.builder("bold ").decoration(TextDecoration.BOLD, true).clickEvent(click).hoverEvent(hover).build())
+                .append(TextComponent.builder("red ").color(NamedTextColor.RED).clickEvent(click).hoverEvent(hover).build())
+                .append(TextComponent.builder("link").clickEvent(click).hoverEvent(hover).build())
+                .append(Component.text(". Test Text."))
+                .build();
+        String stringified = MineDown.stringify(component);
+        System.out.println(stringified);
+        Assertions.assertEquals(stringified.indexOf("]("), stringified.lastIndexOf("]("));
+        Assertions.assertEquals(stringified.indexOf('['), stringified.lastIndexOf('['));
+        Assertions.assertTrue(stringified.startsWith("Test ["));
+        Assertions.assertTrue(stringified.endsWith("). Test Text."));
+    }
 }
@@ -0,0 +1,83 @@
+package de.themoep.minedown.tests;
+
+import de.themoep.minedown.MineDown;
+import de.themoep.minedown.StylePool;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.Style;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StylePoolTest {
+
+    private final StylePool previous = StylePool.global();
+
+    @AfterEach
+    public void resetGlobal() {
+        StylePool.global(previous);
+    }
+
+    @Test
+    public void testInterning() {
+        System.out.println("testInterning");
+        StylePool pool = new StylePool(100);
+        StylePool.global(pool);
+        Component first = MineDown.parse("&6Test [this](/command) &#ff00ff&message");
+        Component second = MineDown.parse("&6Test [this](/command) &#ff00ff&message");
+        Assertions.assertEquals(first, second);
+        Assertions.assertNotSame(first, second);
+        for (int i = 0; i < first.children().size(); i++) {
+            Assertions.assertSame(first.children().get(i).style(), second.children().get(i).style());
+        }
+        Assertions.assertTrue(pool.size() > 0);
+        Assertions.assertTrue(pool.dedupeRatio() > 0);
+        Assertions.assertTrue(pool.dedupeRatio() <= 1);
+    }
+
+    @Test
+    public void testEventInterning() {
+        System.out.println("testEventInterning");
+        StylePool.global(new StylePool(100));
+        Component component = MineDown.parse("[one](/command hover=Text) [two](gold /command hover=Text) [three](/other hover=Text)");
+        List<Style> styles = new ArrayList<>();
+        for (Component child : component.children()) {
+            if (child.style().clickEvent() != null) {
+                styles.add(child.style());
+            }
+        }
+        Assertions.assertEquals(3, styles.size());
+        Assertions.assertNotEquals(styles.get(0), styles.get(1));
+        Assertions.assertSame(styles.get(0).clickEvent(), styles.get(1).clickEvent());
+        Assertions.assertSame(styles.get(0).hoverEvent(), styles.get(1).hoverEvent());
+        Assertions.assertNotEquals(styles.get(0).clickEvent(), styles.get(2).clickEvent());
+        Assertions.assertSame(styles.get(0).hoverEvent(), styles.get(2).hoverEvent());
+    }
+
+    @Test
+    public void testOptIn() {
+        System.out.println("testOptIn");
+        StylePool.global(null);
+        Component first = MineDown.parse("&6Test &#ff00ff&message");
+        Component second = MineDown.parse("&6Test &#ff00ff&message");
+        Assertions.assertEquals(first, second);
+        Assertions.assertNotSame(first.children().get(0).style(), second.children().get(0).style());
+    }
+
+    @Test
+    public void testMaximumSize() {
+        System.out.println("testMaximumSize");
+        StylePool pool = new StylePool(2);
+        String first = new String("first");
+        Assertions.assertSame(first, pool.intern(first));
+        Assertions.assertSame(first, pool.intern(new String("first")));
+        pool.intern("second");
+        String third = new String("third");
+        Assertions.assertSame(third, pool.intern(third));
+        Assertions.assertNotSame(third, pool.intern(new String("third")));
+        Assertions.assertEquals(2, pool.size());
+        Assertions.assertEquals(1, pool.deduplicated());
+    }
+}
@@ -0,0 +1,130 @@
+package de.themoep.minedown.tests;
+
+import de.themoep.minedown.MineDown;
+import de.themoep.minedown.MineDownTemplate;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class TemplateTest {
+
+    @Test
+    public void testRendering() {
+        System.out.println("testRendering");
+        MineDownTemplate template = MineDown.compile("&6Test __%placeholder%__&r [%other%](/command %placeholder%) =D");
+        Assertions.assertEquals(2, template.placeholders().size());
+
+        Map<String, Object> replacements = new HashMap<>();
+        replacements.put("placeholder", "value");
+        replacements.put("other", "link");
+        Assertions.assertEquals(
+                new MineDown("&6Test __%placeholder%__&r [%other%](/command %placeholder%) =D").replace(replacements).toComponent(),
+                template.render(replacements)
+        );
+        Assertions.assertEquals(template.render(replacements), template.render("placeholder", "value", "other", "link"));
+    }
+
+    @Test
+    public void testOptimizedRendering() {
+        System.out.println("testOptimizedRendering");
+        String message = "&6Test __%placeholder%__&r [**%other%**](/command %placeholder%) =D";
+        Map<String, Object> replacements = new HashMap<>();
+        replacements.put("placeholder", "%placeholder%");
+        replacements.put("other", "%other%");
+        MineDownTemplate optimized = new MineDown(message).optimize(true).compile();
+        Assertions.assertEquals(optimized.render(Collections.emptyMap()), optimized.render(replacements));
+        MineDownTemplate unoptimized = MineDown.compile(message);
+        Assertions.assertEquals(unoptimized.render(Collections.emptyMap()), unoptimized.render(replacements));
+    }
+
+    @Test
+    public void testRenderingWithoutPlaceholders() {
+        System.out.println("testRenderingWithoutPlaceholders");
+        MineDownTemplate template = MineDown.compile("&6Test 100% **bold** =D");
+        Assertions.assertTrue(template.placeholders().isEmpty());
+        Assertions.assertSame(template.render(), template.render(Collections.singletonMap("placeholder", "value")));
+    }
+
+    @Test
+    public void testComponentRendering() {
+        System.out.println("testComponentRendering");
+        MineDownTemplate template = new MineDown("&6Test __%PlaceHolder%__&r =D").ignorePlaceholderCase(true).compile();
+        Component value = MineDown.parse("&5value");
+        Assertions.assertTrue(template.render(Collections.singletonMap("placeholder", value)).children().stream()
+                .anyMatch(child -> child.children().contains(value)));
+
+        // The shared gold color is moved to the root but the value stays untouched
+        MineDownTemplate shared = new MineDown("&6Test __%placeholder%__ =D").optimize(true).compile();
+        Assertions.assertTrue(shared.render(Collections.singletonMap("placeholder", value)).children().stream()
+                .anyMatch(child -> child.children().stream().anyMatch(inserted -> inserted == value)));
+    }
+
+    @Test
+    public void testEventSlots() {
+        System.out.println("testEventSlots");
+        MineDownTemplate template = MineDown.compile("[Click %name%](/msg %name% hover=Send %name% a message)");
+        Assertions.assertEquals(Collections.singleton("name"), template.placeholders());
+        Component rendered = template.render(Collections.singletonMap("name", "Phoenix")).children().get(0);
+        Assertions.assertEquals("/msg Phoenix", rendered.style().clickEvent().value());
+        Assertions.assertEquals(MineDown.parse("Send Phoenix a message"), rendered.style().hoverEvent().value());
+        Assertions.assertEquals("Click Phoenix", ((TextComponent) rendered).content());
+    }
+
+    @Test
+    public void testSplitPlaceholder() {
+        System.out.println("testSplitPlaceholder");
+        // The escape splits the text for the parser but not the placeholder
+        MineDownTemplate template = MineDown.compile("Hello %na\\me%!");
+        Assertions.assertEquals(Collections.singleton("name"), template.placeholders());
+        Assertions.assertEquals(MineDown.parse("Hello value!"), template.render("name", "value"));
+    }
+
+    @Test
+    public void testBind() {
+        System.out.println("testBind");
+        MineDownTemplate template = MineDown.compile("&6Welcome %name% to %server%! [Rules](/rules %server%)");
+        MineDownTemplate bound = template.bind(Collections.singletonMap("server", "Minebench"));
+        Assertions.assertEquals(Collections.singleton("name"), bound.placeholders());
+        Map<String, Object> replacements = new HashMap<>();
+        replacements.put("name", "Phoenix");
+        replacements.put("server", "Minebench");
+        Assertions.assertEquals(template.render(replacements), bound.render(Collections.singletonMap("name", "Phoenix")));
+        Assertions.assertSame(bound, bound.bind(Collections.emptyMap()));
+    }
+
+    @Test
+    public void testRenderAll() {
+        System.out.println("testRenderAll");
+        MineDownTemplate template = MineDown.compile("&6Welcome %name%! [Rules](/rules)");
+        List<Component> rendered = template.renderAll(Stream.of("Phoenix", "Notch")
+                .map(name -> Collections.singletonMap("name", name)))
+                .collect(Collectors.toList());
+        Assertions.assertEquals(template.render("name", "Phoenix"), rendered.get(0));
+        Assertions.assertEquals(template.render("name", "Notch"), rendered.get(1));
+        // The part without placeholders is shared
+        Assertions.assertSame(rendered.get(0).children().get(1), rendered.get(1).children().get(1));
+
+        Map<String, Component> sent = new HashMap<>();
+        template.renderAll(Arrays.asList("Phoenix", "Notch"), name -> Collections.singletonMap("name", name), sent::put);
+        Assertions.assertEquals(rendered.get(1), sent.get("Notch"));
+
+        // Also when the optimizer moved the shared color to the root
+        for (boolean optimize : new boolean[]{true, false}) {
+            MineDownTemplate colored = new MineDown("&6Welcome %name%! [Rules](6 /rules)").optimize(optimize).compile();
+            List<Component> coloredRendered = colored.renderAll(Stream.of("Phoenix", "Notch")
+                    .map(name -> Collections.singletonMap("name", name)))
+                    .collect(Collectors.toList());
+            Assertions.assertSame(coloredRendered.get(0).children().get(1), coloredRendered.get(1).children().get(1));
+            Assertions.assertSame(colored.render().children().get(1), coloredRendered.get(0).children().get(1));
+        }
+    }
+}
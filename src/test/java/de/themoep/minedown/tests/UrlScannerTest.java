@@ -0,0 +1,87 @@
+package de.themoep.minedown.tests;
+
+import de.themoep.minedown.MineDown;
+import de.themoep.minedown.MineDownParser;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class UrlScannerTest {
+
+    private static final String[] URLS = {
+            "example.com",
+            "http://example.com",
+            "https://example.com/test?t=2&d002=da0s#d2q",
+            "sub.domain-name.example.minecraft/path",
+            "my_server.network",
+    };
+
+    private static final String[] NO_URLS = {
+            "example",
+            "e.com",
+            "example.c",
+            "example.COM",
+            "https://",
+            "example.com!",
+            "example.com/path with spaces",
+            "ftp://example.com",
+    };
+
+    /**
+     * Get the texts that the parser detected as urls
+     */
+    private static List<String> urls(String message) {
+        List<String> urls = new ArrayList<>();
+        for (Component child : MineDown.parse(message).children()) {
+            ClickEvent click = child.style().clickEvent();
+            if (click != null && click.action() == ClickEvent.Action.OPEN_URL) {
+                urls.add(((TextComponent) child).content());
+            }
+        }
+        return urls;
+    }
+
+    @Test
+    public void testUrls() {
+        for (String url : URLS) {
+            Assertions.assertEquals(Collections.singletonList(url), urls(url), url);
+            Assertions.assertTrue(MineDownParser.URL_PATTERN.matcher(url).matches(), url);
+        }
+    }
+
+    @Test
+    public void testNoUrls() {
+        for (String noUrl : NO_URLS) {
+            Assertions.assertFalse(urls(noUrl).contains(noUrl), noUrl);
+            Assertions.assertFalse(MineDownParser.URL_PATTERN.matcher(noUrl).matches(), noUrl);
+        }
+    }
+
+    @Test
+    public void testRegion() {
+        Assertions.assertEquals(Collections.singletonList("example.com"), urls("Visit example.com now"));
+        Assertions.assertEquals(Collections.singletonList("example.com/path"), urls("Visit\texample.com/path now"));
+        Assertions.assertEquals(Collections.emptyList(), urls("Visit notexample.com\tnow"));
+    }
+
+    @Test
+    public void testPunctuation() {
+        Assertions.assertEquals(Collections.singletonList("example.com"), urls("Visit example.com!"));
+        Assertions.assertEquals(Collections.singletonList("example.com"), urls("Is it example.com?"));
+        Assertions.assertEquals(Collections.singletonList("https://example.com"), urls("Go to https://example.com... now"));
+        Assertions.assertEquals(Arrays.asList("example.com", "example.org"), urls("See example.com, example.org;"));
+        // The path could end with these chars
+        Assertions.assertEquals(Collections.singletonList("example.com/wiki/faq."), urls("Read example.com/wiki/faq."));
+        Assertions.assertEquals(Collections.singletonList("https://example.com/search?"), urls("Try https://example.com/search?"));
+
+        Component component = MineDown.parse("Visit example.com!");
+        Assertions.assertEquals("!", ((TextComponent) component.children().get(component.children().size() - 1)).content());
+    }
+}